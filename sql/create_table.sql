@@ -94,3 +94,13 @@ CREATE INDEX idx_spaceId ON picture (spaceId);
 ALTER TABLE picture
     ADD COLUMN picColor varchar(16) null comment '图片主色调';
 
+-- 创建索引（游标分页按 创建时间 + id 定位）
+CREATE INDEX idx_spaceId_createTime_id ON picture (spaceId, createTime, id);
+
+-- 添加新列（上传时异步提取，最多 5 种颜色，每种 RRGGBB + 占比 WW）
+ALTER TABLE picture
+    ADD COLUMN picPalette varchar(40) null comment '图片调色板';
+
+-- 添加新列（上传时异步计算的 64 位差值哈希，用于以图搜图）
+ALTER TABLE picture
+    ADD COLUMN picHash bigint null comment '图片感知哈希';
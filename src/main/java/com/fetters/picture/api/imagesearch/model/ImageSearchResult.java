@@ -18,4 +18,14 @@ public class ImageSearchResult {
      * 来源地址
      */
     private String fromUrl;
+
+    /**
+     * 图库中的图片 id（外部搜索结果为空）
+     */
+    private Long pictureId;
+
+    /**
+     * 与原图感知哈希的汉明距离（外部搜索结果为空）
+     */
+    private Integer distance;
 }
@@ -0,0 +1,51 @@
+package com.fetters.picture.config;
+
+import com.fetters.picture.manager.cache.CacheInvalidateListener;
+import com.fetters.picture.manager.cache.PictureDetailCacheManager;
+import com.fetters.picture.manager.cache.PictureListCacheManager;
+import com.fetters.picture.manager.cache.UserVOCacheManager;
+import com.fetters.picture.manager.index.PictureIndexManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.Arrays;
+
+/**
+ * Redis 配置
+ */
+@Configuration
+public class RedisConfig {
+
+    /**
+     * 字符串 key + 原始字节 value，用于存储编码后的缓存
+     */
+    @Bean
+    public RedisTemplate<String, byte[]> byteRedisTemplate(RedisConnectionFactory redisConnectionFactory) {
+        RedisTemplate<String, byte[]> redisTemplate = new RedisTemplate<>();
+        redisTemplate.setConnectionFactory(redisConnectionFactory);
+        redisTemplate.setKeySerializer(RedisSerializer.string());
+        redisTemplate.setValueSerializer(RedisSerializer.byteArray());
+        return redisTemplate;
+    }
+
+    /**
+     * 订阅缓存失效频道，保证多节点本地缓存一致
+     */
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidateListenerContainer(RedisConnectionFactory redisConnectionFactory,
+                                                                          CacheInvalidateListener cacheInvalidateListener) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener(cacheInvalidateListener, Arrays.asList(
+                new ChannelTopic(PictureListCacheManager.INVALIDATE_CHANNEL),
+                new ChannelTopic(PictureDetailCacheManager.INVALIDATE_CHANNEL),
+                new ChannelTopic(UserVOCacheManager.INVALIDATE_CHANNEL),
+                new ChannelTopic(PictureIndexManager.SYNC_CHANNEL)));
+        return container;
+    }
+}
@@ -0,0 +1,62 @@
+package com.fetters.picture.constant;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 图片常量
+ */
+public interface PictureConstant {
+
+    /**
+     * 常用分类
+     */
+    List<String> CATEGORY_LIST = Arrays.asList("壁纸", "插画", "摄影", "图片", "头像");
+
+    /**
+     * 常用标签
+     */
+    List<String> TAG_LIST = Arrays.asList("自然", "城市", "人物", "动物", "美食", "动漫", "生活", "游戏");
+
+    /**
+     * 字段投影：用户信息字段（需要查询 userId 并关联查询用户）
+     */
+    String USER_FIELD = "user";
+
+    /**
+     * 字段投影：可选的图片封装类字段，除用户信息外均与数据库列同名
+     */
+    List<String> PICTURE_VO_FIELD_LIST = Arrays.asList("id", "spaceId", "url", "thumbnailUrl", "downloadUrl",
+            "name", "introduction", "tags", "category", "picSize", "picWidth", "picHeight", "picScale", "picFormat",
+            "picColor", "userId", "createTime", "editTime", "updateTime", USER_FIELD);
+
+    /**
+     * 颜色搜图返回数量
+     */
+    int COLOR_SEARCH_LIMIT = 12;
+
+    /**
+     * 按色差阈值搜图时最多返回数量
+     */
+    int COLOR_RANGE_SEARCH_LIMIT = 100;
+
+    /**
+     * 调色板搜图默认色差阈值（CIEDE2000）
+     */
+    double PALETTE_SEARCH_DELTA_E = 12;
+
+    /**
+     * 以图搜图返回数量
+     */
+    int SIMILAR_SEARCH_LIMIT = 12;
+
+    /**
+     * 以图搜图默认最大汉明距离（64 位感知哈希）
+     */
+    int SIMILAR_SEARCH_DISTANCE = 10;
+
+    /**
+     * 以图搜图允许的最大汉明距离
+     */
+    int SIMILAR_SEARCH_MAX_DISTANCE = 16;
+}
@@ -0,0 +1,48 @@
+package com.fetters.picture.controller;
+
+import com.fetters.picture.annotation.AuthCheck;
+import com.fetters.picture.common.BaseResponse;
+import com.fetters.picture.common.ResultUtils;
+import com.fetters.picture.constant.UserConstant;
+import com.fetters.picture.manager.cache.*;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.annotation.Resource;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 缓存管理
+ */
+@RestController
+@RequestMapping("/cache")
+public class CacheController {
+
+    @Resource
+    private PictureListCacheManager pictureListCacheManager;
+
+    @Resource
+    private PictureDetailCacheManager pictureDetailCacheManager;
+
+    @Resource
+    private UserVOCacheManager userVOCacheManager;
+
+    @Resource
+    private PageCountManager pageCountManager;
+
+    /**
+     * 获取本节点各缓存区域的统计（仅管理员可用）
+     */
+    @GetMapping("/stats")
+    @AuthCheck(mustRole = UserConstant.ADMIN_ROLE)
+    public BaseResponse<List<CacheRegionStats>> listCacheStats() {
+        List<CacheRegionStats> statsList = Arrays.asList(
+                pictureListCacheManager.getStats(),
+                pictureDetailCacheManager.getStats(),
+                userVOCacheManager.getStats(),
+                pageCountManager.getStats());
+        return ResultUtils.success(statsList);
+    }
+}
@@ -7,30 +7,40 @@ import com.fetters.picture.annotation.AuthCheck;
 import com.fetters.picture.api.aliyunai.AliYunAiApi;
 import com.fetters.picture.api.aliyunai.model.CreateOutPaintingTaskResponse;
 import com.fetters.picture.api.aliyunai.model.GetOutPaintingTaskResponse;
-import com.fetters.picture.api.imagesearch.ImageSearchApiFacade;
 import com.fetters.picture.api.imagesearch.model.ImageSearchResult;
 import com.fetters.picture.common.BaseResponse;
 import com.fetters.picture.common.DeleteRequest;
 import com.fetters.picture.common.ResultUtils;
+import com.fetters.picture.constant.PictureConstant;
 import com.fetters.picture.constant.UserConstant;
 import com.fetters.picture.exception.BusinessException;
 import com.fetters.picture.exception.ErrorCode;
 import com.fetters.picture.exception.ThrowUtils;
+import com.fetters.picture.manager.cache.PictureCacheEntry;
 import com.fetters.picture.model.dto.picture.*;
 import com.fetters.picture.model.entity.Picture;
 import com.fetters.picture.model.entity.User;
 import com.fetters.picture.model.vo.PictureTagCategory;
+import com.fetters.picture.model.vo.CursorPageVO;
+import com.fetters.picture.model.vo.PictureFacetVO;
 import com.fetters.picture.model.vo.PictureVO;
 import com.fetters.picture.service.PictureService;
 import com.fetters.picture.service.UserService;
+import com.fetters.picture.utils.ETagUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import javax.annotation.Resource;
 import javax.servlet.http.HttpServletRequest;
-import java.util.Arrays;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Date;
 import java.util.List;
 
 /**
@@ -52,6 +62,11 @@ public class PictureController {
     @Resource
     private AliYunAiApi aliYunAiApi;
 
+    /**
+     * 响应体超过该长度（字节）时才使用 gzip 压缩
+     */
+    private static final int GZIP_MIN_LENGTH = 1024;
+
     /** 
      * 上传图片（可重新上传）
      */
@@ -62,7 +77,6 @@ public class PictureController {
             HttpServletRequest request) {
         User loginUser = userService.getLoginUser(request);
         PictureVO pictureVO = pictureService.uploadPicture(multipartFile, pictureUploadRequest, loginUser);
-        pictureService.clearAllCache();
         return ResultUtils.success(pictureVO);
     }
 
@@ -77,7 +91,6 @@ public class PictureController {
         String fileUrl = pictureUploadRequest.getFileUrl();
         User loginUser = userService.getLoginUser(request);
         PictureVO pictureVO = pictureService.uploadPicture(fileUrl, pictureUploadRequest, loginUser);
-        pictureService.clearAllCache();
         return ResultUtils.success(pictureVO);
     }
 
@@ -92,7 +105,6 @@ public class PictureController {
         }
         User loginUser = userService.getLoginUser(request);
         pictureService.deletePicture(deleteRequest.getId(), loginUser);
-        pictureService.clearAllCache();
         return ResultUtils.success(true);
     }
 
@@ -126,7 +138,8 @@ public class PictureController {
         boolean result = pictureService.updateById(picture);
         ThrowUtils.throwIf(!result, ErrorCode.OPERATION_ERROR);
 
-        pictureService.clearAllCache();
+        pictureService.clearDetailCache(id);
+        pictureService.refreshIndexAndClearCache(oldPicture.getSpaceId(), Collections.singletonList(id));
 
         return ResultUtils.success(true);
     }
@@ -142,7 +155,6 @@ public class PictureController {
         }
         User loginUser = userService.getLoginUser(request);
         pictureService.editPicture(pictureEditRequest, loginUser);
-        pictureService.clearAllCache();
         return ResultUtils.success(true);
     }
 
@@ -172,21 +184,21 @@ public class PictureController {
      * 根据 id 获取图片（用户使用）
      */
     @GetMapping("/get/vo")
-    public BaseResponse<PictureVO> getPictureVOById(long id, HttpServletRequest request) {
+    public ResponseEntity<BaseResponse<PictureVO>> getPictureVOById(long id, HttpServletRequest request) {
         ThrowUtils.throwIf(id <= 0, ErrorCode.PARAMS_ERROR);
-        // 查询数据库
-        Picture picture = pictureService.getById(id);
-        ThrowUtils.throwIf(picture == null, ErrorCode.NOT_FOUND_ERROR);
-
-        // 空间权限校验
-        Long spaceId = picture.getSpaceId();
-        if (spaceId != null) {
-            User loginUser = userService.getLoginUser(request);
-            pictureService.checkPictureAuth(loginUser, picture);
+        // 优先从缓存获取封装类
+        PictureVO pictureVO = pictureService.getPictureVOById(id, request);
+        // 以更新时间作为版本，未修改时返回 304，不再序列化
+        Date updateTime = pictureVO.getUpdateTime();
+        if (updateTime == null) {
+            return ResponseEntity.ok(ResultUtils.success(pictureVO));
         }
-
-        // 获取封装类
-        return ResultUtils.success(pictureService.getPictureVO(picture, request));
+        String eTag = id + "-" + updateTime.getTime();
+        HttpHeaders headers = ETagUtils.buildHeaders(eTag);
+        if (ETagUtils.isNotModified(eTag, request)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).build();
+        }
+        return ResponseEntity.ok().headers(headers).body(ResultUtils.success(pictureVO));
     }
 
     /**
@@ -195,23 +207,49 @@ public class PictureController {
     @PostMapping("/list/page")
     @AuthCheck(mustRole = UserConstant.ADMIN_ROLE)
     public BaseResponse<Page<Picture>> listPictureByPage(@RequestBody PictureQueryRequest pictureQueryRequest) {
-        long current = pictureQueryRequest.getCurrent();
-        long size = pictureQueryRequest.getPageSize();
         // 查询数据库
-        Page<Picture> picturePage = pictureService.page(new Page<>(current, size),
-                pictureService.getQueryWrapper(pictureQueryRequest));
+        Page<Picture> picturePage = pictureService.listPictureByPage(pictureQueryRequest);
         return ResultUtils.success(picturePage);
     }
 
+    /**
+     * 游标分页获取图片列表（用户使用，适用于无限滚动）
+     */
+    @PostMapping("/list/cursor/vo")
+    public BaseResponse<CursorPageVO<PictureVO>> listPictureVOByCursor(@RequestBody PictureCursorQueryRequest pictureCursorQueryRequest,
+                                                                       HttpServletRequest request) {
+        ThrowUtils.throwIf(pictureCursorQueryRequest == null, ErrorCode.PARAMS_ERROR);
+        return ResultUtils.success(pictureService.listPictureVOByCursor(pictureCursorQueryRequest, request));
+    }
+
     /**
      * 分页获取图片列表（用户使用）
+     * <p>
+     * 响应体为预先序列化好的 BaseResponse&lt;Page&lt;PictureVO&gt;&gt; JSON 字节，直接写回，跳过反序列化和序列化。
      */
     @PostMapping("/list/page/vo")
-    public BaseResponse<Page<PictureVO>> listPictureVOByPage(@RequestBody PictureQueryRequest pictureQueryRequest,
-                                                             HttpServletRequest request) {
+    public ResponseEntity<byte[]> listPictureVOByPage(@RequestBody PictureQueryRequest pictureQueryRequest,
+                                                      HttpServletRequest request) {
         ThrowUtils.throwIf(pictureQueryRequest == null, ErrorCode.PARAMS_ERROR);
-        Page<PictureVO> pictureVOPage = pictureService.listPictureVOByPage(pictureQueryRequest, request);
-        return ResultUtils.success(pictureVOPage);
+        // 缓存 key 中带版本号，版本号不变则页面内容不变，未修改时直接返回 304，不查询缓存和数据库
+        String cacheKey = pictureService.getListCacheKey(pictureQueryRequest, request);
+        String eTag = ETagUtils.hash(cacheKey);
+        HttpHeaders headers = ETagUtils.buildHeaders(eTag);
+        if (ETagUtils.isNotModified(eTag, request)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).build();
+        }
+        PictureCacheEntry responseBody = pictureService.listPictureVOByPageResponseBody(cacheKey, pictureQueryRequest);
+        return buildResponseBody(responseBody, eTag, headers, request);
+    }
+
+    /**
+     * 获取图片分面统计（用户使用，筛选条件下各分类、格式、标签的数量）
+     */
+    @PostMapping("/facet")
+    public BaseResponse<PictureFacetVO> getPictureFacet(@RequestBody PictureQueryRequest pictureQueryRequest,
+                                                        HttpServletRequest request) {
+        ThrowUtils.throwIf(pictureQueryRequest == null, ErrorCode.PARAMS_ERROR);
+        return ResultUtils.success(pictureService.getPictureFacet(pictureQueryRequest, request));
     }
 
     /**
@@ -220,10 +258,8 @@ public class PictureController {
     @GetMapping("/tag_category")
     public BaseResponse<PictureTagCategory> listPictureTagCategory() {
         PictureTagCategory pictureTagCategory = new PictureTagCategory();
-        List<String> categoryList = Arrays.asList("壁纸", "插画", "摄影", "图片", "头像");
-        List<String> tagList = Arrays.asList("自然", "城市", "人物", "动物", "美食", "动漫", "生活", "游戏");
-        pictureTagCategory.setCategoryList(categoryList);
-        pictureTagCategory.setTagList(tagList);
+        pictureTagCategory.setCategoryList(PictureConstant.CATEGORY_LIST);
+        pictureTagCategory.setTagList(PictureConstant.TAG_LIST);
         return ResultUtils.success(pictureTagCategory);
     }
 
@@ -252,21 +288,23 @@ public class PictureController {
         ThrowUtils.throwIf(pictureUploadByBatchRequest == null, ErrorCode.PARAMS_ERROR);
         User loginUser = userService.getLoginUser(request);
         int uploadCount = pictureService.uploadPictureByBatch(pictureUploadByBatchRequest, loginUser);
-        pictureService.clearAllCache();
         return ResultUtils.success(uploadCount);
     }
 
     /**
-     * 以图搜图
+     * 以图搜图（图库内按感知哈希搜索近似图片）
+     * @param searchPictureByPictureRequest 以图搜图请求
+     * @param request                       请求
+     * @return 以图搜图结果
      */
     @PostMapping("/search/picture")
-    public BaseResponse<List<ImageSearchResult>> searchPictureByPicture(@RequestBody SearchPictureByPictureRequest searchPictureByPictureRequest) {
+    public BaseResponse<List<ImageSearchResult>> searchPictureByPicture(@RequestBody SearchPictureByPictureRequest searchPictureByPictureRequest,
+                                                                        HttpServletRequest request) {
         ThrowUtils.throwIf(searchPictureByPictureRequest == null, ErrorCode.PARAMS_ERROR);
         Long pictureId = searchPictureByPictureRequest.getPictureId();
-        ThrowUtils.throwIf(pictureId == null || pictureId <= 0, ErrorCode.PARAMS_ERROR);
-        Picture oldPicture = pictureService.getById(pictureId);
-        ThrowUtils.throwIf(oldPicture == null, ErrorCode.NOT_FOUND_ERROR);
-        List<ImageSearchResult> resultList = ImageSearchApiFacade.searchImage(oldPicture.getDownloadUrl());
+        Integer maxDistance = searchPictureByPictureRequest.getMaxDistance();
+        User loginUser = userService.getLoginUser(request);
+        List<ImageSearchResult> resultList = pictureService.searchPictureByPicture(pictureId, maxDistance, loginUser);
         return ResultUtils.success(resultList);
     }
 
@@ -282,8 +320,27 @@ public class PictureController {
         ThrowUtils.throwIf(searchPictureByColorRequest == null, ErrorCode.PARAMS_ERROR);
         String picColor = searchPictureByColorRequest.getPicColor();
         Long spaceId = searchPictureByColorRequest.getSpaceId();
+        Double maxDeltaE = searchPictureByColorRequest.getMaxDeltaE();
         User loginUser = userService.getLoginUser(request);
-        List<PictureVO> result = pictureService.searchPictureByColor(spaceId, picColor, loginUser);
+        List<PictureVO> result = pictureService.searchPictureByColor(spaceId, picColor, maxDeltaE, loginUser);
+        return ResultUtils.success(result);
+    }
+
+    /**
+     * 调色板搜图
+     * @param searchPictureByPaletteRequest 调色板搜图请求
+     * @param request                       请求
+     * @return 调色板搜图结果
+     */
+    @PostMapping("/search/palette")
+    public BaseResponse<List<PictureVO>> searchPictureByPalette(@RequestBody SearchPictureByPaletteRequest searchPictureByPaletteRequest,
+                                                                HttpServletRequest request) {
+        ThrowUtils.throwIf(searchPictureByPaletteRequest == null, ErrorCode.PARAMS_ERROR);
+        List<String> colors = searchPictureByPaletteRequest.getColors();
+        Long spaceId = searchPictureByPaletteRequest.getSpaceId();
+        Double maxDeltaE = searchPictureByPaletteRequest.getMaxDeltaE();
+        User loginUser = userService.getLoginUser(request);
+        List<PictureVO> result = pictureService.searchPictureByPalette(spaceId, colors, maxDeltaE, loginUser);
         return ResultUtils.success(result);
     }
 
@@ -299,7 +356,6 @@ public class PictureController {
         ThrowUtils.throwIf(pictureEditByBatchRequest == null, ErrorCode.PARAMS_ERROR);
         User loginUser = userService.getLoginUser(request);
         pictureService.editPictureByBatch(pictureEditByBatchRequest, loginUser);
-        pictureService.clearAllCache();
         return ResultUtils.success(true);
     }
 
@@ -332,4 +388,29 @@ public class PictureController {
         GetOutPaintingTaskResponse response = aliYunAiApi.getOutPaintingTask(taskId);
         return ResultUtils.success(response);
     }
+
+    /**
+     * 以预先序列化好的响应体构建响应，客户端支持 gzip 时返回预先压缩好的字节
+     * @param responseBody 响应体缓存条目
+     * @param eTag         ETag 值（不含引号）
+     * @param headers      条件请求相关的响应头
+     * @param request      请求
+     * @return 响应
+     */
+    private ResponseEntity<byte[]> buildResponseBody(PictureCacheEntry responseBody, String eTag, HttpHeaders headers,
+                                                     HttpServletRequest request) {
+        byte[] body = responseBody.getData();
+        headers.setContentType(new MediaType(MediaType.APPLICATION_JSON, StandardCharsets.UTF_8));
+        headers.setVary(Collections.singletonList(HttpHeaders.ACCEPT_ENCODING));
+        // 响应体较小时压缩收益不大，直接返回原始字节
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (body.length >= GZIP_MIN_LENGTH && StrUtil.containsIgnoreCase(acceptEncoding, "gzip")) {
+            body = responseBody.getGzipData();
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+            // 压缩后的字节与原始字节不同，使用不同的 ETag
+            headers.setETag(ETagUtils.quote(eTag + ETagUtils.GZIP_SUFFIX));
+        }
+        headers.setContentLength(body.length);
+        return ResponseEntity.ok().headers(headers).body(body);
+    }
 }
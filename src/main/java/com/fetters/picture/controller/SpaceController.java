@@ -95,6 +95,7 @@ public class SpaceController {
         // 操作数据库
         boolean result = spaceService.updateById(space);
         ThrowUtils.throwIf(!result, ErrorCode.OPERATION_ERROR);
+        spaceService.clearCountCache();
         return ResultUtils.success(true);
     }
 
@@ -129,6 +130,7 @@ public class SpaceController {
         // 操作数据库
         boolean result = spaceService.updateById(space);
         ThrowUtils.throwIf(!result, ErrorCode.OPERATION_ERROR);
+        spaceService.clearCountCache();
         return ResultUtils.success(true);
     }
 
@@ -165,11 +167,8 @@ public class SpaceController {
     @PostMapping("/list/page")
     @AuthCheck(mustRole = UserConstant.ADMIN_ROLE)
     public BaseResponse<Page<Space>> listSpaceByPage(@RequestBody SpaceQueryRequest spaceQueryRequest) {
-        long current = spaceQueryRequest.getCurrent();
-        long size = spaceQueryRequest.getPageSize();
         // 查询数据库
-        Page<Space> spacePage = spaceService.page(new Page<>(current, size),
-                spaceService.getQueryWrapper(spaceQueryRequest));
+        Page<Space> spacePage = spaceService.listSpaceByPage(spaceQueryRequest);
         return ResultUtils.success(spacePage);
     }
 
@@ -179,14 +178,12 @@ public class SpaceController {
     @PostMapping("/list/page/vo")
     public BaseResponse<Page<SpaceVO>> listSpaceVOByPage(@RequestBody SpaceQueryRequest spaceQueryRequest,
                                                          HttpServletRequest request) {
-        long current = spaceQueryRequest.getCurrent();
         long size = spaceQueryRequest.getPageSize();
         // 限制爬虫
         ThrowUtils.throwIf(size > 20, ErrorCode.PARAMS_ERROR);
 
         // 查询数据库
-        Page<Space> spacePage = spaceService.page(new Page<>(current, size),
-                spaceService.getQueryWrapper(spaceQueryRequest));
+        Page<Space> spacePage = spaceService.listSpaceByPage(spaceQueryRequest);
         // 获取封装类
         Page<SpaceVO> spaceVOPage = spaceService.getSpaceVOPage(spacePage, request);
         return ResultUtils.success(spaceVOPage);
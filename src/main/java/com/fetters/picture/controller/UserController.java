@@ -9,6 +9,7 @@ import com.fetters.picture.constant.UserConstant;
 import com.fetters.picture.exception.BusinessException;
 import com.fetters.picture.exception.ErrorCode;
 import com.fetters.picture.exception.ThrowUtils;
+import com.fetters.picture.manager.cache.UserVOCacheManager;
 import com.fetters.picture.model.dto.user.*;
 import com.fetters.picture.model.entity.User;
 import com.fetters.picture.model.vo.LoginUserVO;
@@ -32,6 +33,9 @@ public class UserController {
     @Resource
     private UserService userService;
 
+    @Resource
+    private UserVOCacheManager userVOCacheManager;
+
     /**
      * 用户注册接口
      * @param userRegisterRequest
@@ -101,6 +105,7 @@ public class UserController {
         user.setUserPassword(encryptPassword);
         boolean result = userService.save(user);
         ThrowUtils.throwIf(!result, ErrorCode.OPERATION_ERROR);
+        userService.clearCountCache();
         return ResultUtils.success(user.getId());
     }
 
@@ -136,6 +141,8 @@ public class UserController {
             throw new BusinessException(ErrorCode.PARAMS_ERROR);
         }
         boolean b = userService.removeById(deleteRequest.getId());
+        userService.clearCountCache();
+        userVOCacheManager.invalidate(deleteRequest.getId());
         return ResultUtils.success(b);
     }
 
@@ -152,6 +159,8 @@ public class UserController {
         BeanUtils.copyProperties(userUpdateRequest, user);
         boolean result = userService.updateById(user);
         ThrowUtils.throwIf(!result, ErrorCode.OPERATION_ERROR);
+        userService.clearCountCache();
+        userVOCacheManager.invalidate(user.getId());
         return ResultUtils.success(true);
     }
 
@@ -165,8 +174,7 @@ public class UserController {
         ThrowUtils.throwIf(userQueryRequest == null, ErrorCode.PARAMS_ERROR);
         long current = userQueryRequest.getCurrent();
         long pageSize = userQueryRequest.getPageSize();
-        Page<User> userPage = userService.page(new Page<>(current, pageSize),
-                userService.getQueryWrapper(userQueryRequest));
+        Page<User> userPage = userService.listUserByPage(userQueryRequest);
         Page<UserVO> userVOPage = new Page<>(current, pageSize, userPage.getTotal());
         List<UserVO> userVOList = userService.getUserVOList(userPage.getRecords());
         userVOPage.setRecords(userVOList);
@@ -0,0 +1,85 @@
+package com.fetters.picture.listener;
+
+import com.fetters.picture.constant.PictureConstant;
+import com.fetters.picture.model.dto.picture.PictureQueryRequest;
+import com.fetters.picture.service.PictureService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 图片分页缓存预热
+ * <p>
+ * 应用启动完成后，预先加载公共图库及各常用分类的前几页（Redis 中已有则直接拉取到本地缓存，否则查询数据库），
+ * 避免发布后的第一批请求全部打到数据库。
+ * <p>
+ * 预热在 ApplicationReadyEvent 监听中同步执行，Spring Boot 会在所有监听执行完之后才发布
+ * ReadinessState.ACCEPTING_TRAFFIC，因此就绪状态在预热完成后才切换。
+ */
+@Slf4j
+@Component
+public class PictureCacheWarmUpListener {
+
+    @Resource
+    private PictureService pictureService;
+
+    /**
+     * 是否开启预热
+     */
+    @Value("${picture.cache.warm-up.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * 每个列表预热的页数
+     */
+    @Value("${picture.cache.warm-up.pages:3}")
+    private int pages;
+
+    /**
+     * 页面大小，需与前端首页一致
+     */
+    @Value("${picture.cache.warm-up.page-size:12}")
+    private int pageSize;
+
+    /**
+     * 排序字段，需与前端首页默认排序一致
+     */
+    @Value("${picture.cache.warm-up.sort-field:createTime}")
+    private String sortField;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+        // 公共图库（不限分类）+ 各常用分类
+        List<String> categoryList = new ArrayList<>();
+        categoryList.add(null);
+        categoryList.addAll(PictureConstant.CATEGORY_LIST);
+        int count = 0;
+        for (String category : categoryList) {
+            for (int current = 1; current <= pages; current++) {
+                PictureQueryRequest pictureQueryRequest = new PictureQueryRequest();
+                pictureQueryRequest.setCurrent(current);
+                pictureQueryRequest.setPageSize(pageSize);
+                pictureQueryRequest.setSortField(sortField);
+                pictureQueryRequest.setCategory(category);
+                try {
+                    // 公共图库不需要登录信息
+                    pictureService.listPictureVOByPageResponseBody(pictureQueryRequest, null);
+                    count++;
+                } catch (Exception e) {
+                    log.warn("图片分页缓存预热失败, category = {}, current = {}", category, current, e);
+                }
+            }
+        }
+        log.info("图片分页缓存预热完成, 共 {} 页, 耗时 {} ms", count, System.currentTimeMillis() - startTime);
+    }
+}
@@ -0,0 +1,59 @@
+package com.fetters.picture.manager.cache;
+
+import cn.hutool.json.JSONUtil;
+import com.fetters.picture.manager.index.PictureIndexManager;
+import com.fetters.picture.manager.index.PictureIndexSyncMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 缓存失效消息监听器，收到消息后清理本节点的本地缓存；同时处理图片索引同步消息
+ */
+@Slf4j
+@Component
+public class CacheInvalidateListener implements MessageListener {
+
+    @Resource
+    private PictureListCacheManager pictureListCacheManager;
+
+    @Resource
+    private PictureDetailCacheManager pictureDetailCacheManager;
+
+    @Resource
+    private UserVOCacheManager userVOCacheManager;
+
+    @Resource
+    private PictureIndexManager pictureIndexManager;
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String channel = new String(message.getChannel(), StandardCharsets.UTF_8);
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        try {
+            // 图片详情缓存：消息内容为图片 id
+            if (PictureDetailCacheManager.INVALIDATE_CHANNEL.equals(channel)) {
+                pictureDetailCacheManager.evictLocal(Long.parseLong(body));
+                return;
+            }
+            // 用户缓存：消息内容为用户 id
+            if (UserVOCacheManager.INVALIDATE_CHANNEL.equals(channel)) {
+                userVOCacheManager.evictLocal(Long.parseLong(body));
+                return;
+            }
+            // 图片索引：先更新索引，再切换消息中携带的分页缓存版本号
+            if (PictureIndexManager.SYNC_CHANNEL.equals(channel)) {
+                pictureIndexManager.onSyncMessage(JSONUtil.toBean(body, PictureIndexSyncMessage.class));
+                return;
+            }
+            CacheInvalidateMessage invalidateMessage = JSONUtil.toBean(body, CacheInvalidateMessage.class);
+            pictureListCacheManager.evictLocal(invalidateMessage.getScope(), invalidateMessage.getGeneration());
+        } catch (Exception e) {
+            log.error("缓存失效消息处理失败, message = {}", body, e);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.fetters.picture.manager.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * 缓存失效消息（通过 Redis 频道广播给所有节点）
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheInvalidateMessage implements Serializable {
+
+    /**
+     * 失效的缓存范围
+     */
+    private String scope;
+
+    /**
+     * 失效后的最新版本号
+     */
+    private Long generation;
+
+    private static final long serialVersionUID = 1L;
+}
@@ -0,0 +1,104 @@
+package com.fetters.picture.manager.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 缓存区域统计（本节点自启动以来），本地缓存部分来自 Caffeine recordStats
+ */
+@Data
+public class CacheRegionStats implements Serializable {
+
+    /**
+     * 缓存区域
+     */
+    private String region;
+
+    /**
+     * 本地缓存条目数（估算）
+     */
+    private long estimatedSize;
+
+    /**
+     * 本地缓存占用字节数（按字节限制容量的区域才有）
+     */
+    private Long weightedSize;
+
+    /**
+     * 本地缓存容量上限（按字节限制时为字节数，否则为条目数）
+     */
+    private Long maximum;
+
+    /**
+     * 本地缓存命中次数
+     */
+    private long hitCount;
+
+    /**
+     * 本地缓存未命中次数
+     */
+    private long missCount;
+
+    /**
+     * 本地缓存命中率
+     */
+    private double hitRate;
+
+    /**
+     * 本地缓存淘汰次数（容量不足或过期）
+     */
+    private long evictionCount;
+
+    /**
+     * 本地缓存淘汰的总权重（按字节限制时为字节数）
+     */
+    private long evictionWeight;
+
+    /**
+     * Redis 命中次数（本地未命中后）
+     */
+    private Long redisHitCount;
+
+    /**
+     * 加载次数（本地缓存未命中后查询 Redis / 数据库）
+     */
+    private long loadCount;
+
+    /**
+     * 平均加载耗时（毫秒）
+     */
+    private double averageLoadMillis;
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 根据 Caffeine 本地缓存统计构建
+     * @param region 缓存区域
+     * @param cache  本地缓存（需开启 recordStats）
+     * @return 缓存区域统计
+     */
+    public static CacheRegionStats of(String region, Cache<?, ?> cache) {
+        CacheRegionStats regionStats = new CacheRegionStats();
+        regionStats.setRegion(region);
+        regionStats.setEstimatedSize(cache.estimatedSize());
+        cache.policy().eviction().ifPresent(eviction -> {
+            regionStats.setMaximum(eviction.getMaximum());
+            if (eviction.isWeighted()) {
+                regionStats.setWeightedSize(eviction.weightedSize().orElse(0L));
+            }
+        });
+        CacheStats stats = cache.stats();
+        regionStats.setHitCount(stats.hitCount());
+        regionStats.setMissCount(stats.missCount());
+        regionStats.setHitRate(stats.hitRate());
+        regionStats.setEvictionCount(stats.evictionCount());
+        regionStats.setEvictionWeight(stats.evictionWeight());
+        regionStats.setLoadCount(stats.loadCount());
+        regionStats.setAverageLoadMillis(stats.averageLoadPenalty() / TimeUnit.MILLISECONDS.toNanos(1));
+        return regionStats;
+    }
+}
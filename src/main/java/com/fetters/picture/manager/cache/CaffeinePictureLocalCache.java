@@ -0,0 +1,73 @@
+package com.fetters.picture.manager.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 堆内本地缓存，按字节数限制容量（单页大小从 1 KB 到 100 KB 以上不等，按条目数无法预估内存占用）
+ * <p>
+ * 按条目的过期时间移除（写入时已取本地缓存和 Redis 过期时间中较早的一个），与堆外缓存一致
+ */
+class CaffeinePictureLocalCache implements PictureLocalCache {
+
+    private final Cache<String, PictureCacheEntry> cache;
+
+    /**
+     * @param maxBytes 最大字节数
+     */
+    CaffeinePictureLocalCache(long maxBytes) {
+        this.cache = Caffeine.newBuilder().initialCapacity(1024)
+                .maximumWeight(maxBytes)
+                // 按 key 和缓存字节计算权重，gzip 字节远小于原始字节，不计入
+                .weigher((String key, PictureCacheEntry entry) -> key.length() + entry.getData().length)
+                .expireAfter(new Expiry<String, PictureCacheEntry>() {
+                    @Override
+                    public long expireAfterCreate(String key, PictureCacheEntry value, long currentTime) {
+                        long remainingMillis = value.getExpireTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0L, remainingMillis));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, PictureCacheEntry value, long currentTime,
+                                                  long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, PictureCacheEntry value, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public PictureCacheEntry getIfPresent(String cacheKey) {
+        return cache.getIfPresent(cacheKey);
+    }
+
+    @Override
+    public void put(String cacheKey, PictureCacheEntry cacheEntry) {
+        cache.put(cacheKey, cacheEntry);
+    }
+
+    @Override
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void invalidateByPrefix(String keyPrefix) {
+        cache.asMap().keySet().removeIf(key -> key.startsWith(keyPrefix));
+    }
+
+    @Override
+    public CacheRegionStats getStats(String region) {
+        return CacheRegionStats.of(region, cache);
+    }
+}
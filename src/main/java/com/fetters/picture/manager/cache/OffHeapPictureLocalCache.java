@@ -0,0 +1,207 @@
+package com.fetters.picture.manager.cache;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 堆外本地缓存：缓存字节保存在预先分配的直接内存（DirectByteBuffer）中，堆内只保留 key 到内存块的索引
+ * <p>
+ * 直接内存按固定大小的块（block）切分，条目占用若干个不连续的块，空闲块通过栈管理，写入时不足则按 LRU 淘汰。
+ * 大页面的字节不再进入老年代，减少 Full GC / Mixed GC 的停顿。
+ * <p>
+ * 所有操作在同一把锁内完成（读取时将字节复制回堆内短命数组），避免读取期间内存块被淘汰复用。
+ * 读取返回的是新条目，gzip 压缩结果不再跨请求复用。
+ */
+class OffHeapPictureLocalCache implements PictureLocalCache {
+
+    /**
+     * 块大小（字节）
+     */
+    static final int BLOCK_SIZE = 4096;
+
+    /**
+     * 单个直接内存分片的最大字节数
+     */
+    private static final int MAX_SLAB_BYTES = 16 * 1024 * 1024;
+
+    /**
+     * 直接内存分片
+     */
+    private final ByteBuffer[] slabs;
+
+    private final int blocksPerSlab;
+
+    private final int totalBlocks;
+
+    /**
+     * 空闲块栈
+     */
+    private final int[] freeBlocks;
+
+    private int freeCount;
+
+    /**
+     * key 索引，按访问顺序排列，头部为最久未访问
+     */
+    private final LinkedHashMap<String, Node> index = new LinkedHashMap<>(1024, 0.75f, true);
+
+    /**
+     * 统计
+     */
+    private long hitCount;
+
+    private long missCount;
+
+    private long evictionCount;
+
+    private long evictionWeight;
+
+    /**
+     * @param maxBytes 最大字节数（向下取整到块大小）
+     */
+    OffHeapPictureLocalCache(long maxBytes) {
+        int slabBytes = (int) Math.max(BLOCK_SIZE, Math.min(MAX_SLAB_BYTES, maxBytes) / BLOCK_SIZE * BLOCK_SIZE);
+        int slabCount = (int) Math.max(1, maxBytes / slabBytes);
+        this.blocksPerSlab = slabBytes / BLOCK_SIZE;
+        this.totalBlocks = blocksPerSlab * slabCount;
+        this.slabs = new ByteBuffer[slabCount];
+        for (int i = 0; i < slabCount; i++) {
+            slabs[i] = ByteBuffer.allocateDirect(slabBytes);
+        }
+        this.freeBlocks = new int[totalBlocks];
+        for (int i = 0; i < totalBlocks; i++) {
+            freeBlocks[i] = totalBlocks - 1 - i;
+        }
+        this.freeCount = totalBlocks;
+    }
+
+    @Override
+    public synchronized PictureCacheEntry getIfPresent(String cacheKey) {
+        Node node = index.get(cacheKey);
+        if (node == null) {
+            missCount++;
+            return null;
+        }
+        if (System.currentTimeMillis() >= node.expireTime) {
+            remove(cacheKey);
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        byte[] data = new byte[node.length];
+        int offset = 0;
+        for (int block : node.blocks) {
+            int length = Math.min(BLOCK_SIZE, node.length - offset);
+            ByteBuffer slab = slabs[block / blocksPerSlab];
+            slab.position((block % blocksPerSlab) * BLOCK_SIZE);
+            slab.get(data, offset, length);
+            offset += length;
+        }
+        return new PictureCacheEntry(data, node.expireTime, node.hitCount);
+    }
+
+    @Override
+    public synchronized void put(String cacheKey, PictureCacheEntry cacheEntry) {
+        byte[] data = cacheEntry.getData();
+        int blockCount = Math.max(1, (data.length + BLOCK_SIZE - 1) / BLOCK_SIZE);
+        remove(cacheKey);
+        // 单个条目超过容量的 1/4 时不缓存，避免一次淘汰大量条目
+        if (blockCount > totalBlocks / 4) {
+            return;
+        }
+        Iterator<Map.Entry<String, Node>> iterator = index.entrySet().iterator();
+        while (freeCount < blockCount && iterator.hasNext()) {
+            Node eldest = iterator.next().getValue();
+            iterator.remove();
+            release(eldest);
+            evictionCount++;
+            evictionWeight += eldest.length;
+        }
+        int[] blocks = new int[blockCount];
+        int offset = 0;
+        for (int i = 0; i < blockCount; i++) {
+            int block = freeBlocks[--freeCount];
+            int length = Math.min(BLOCK_SIZE, data.length - offset);
+            ByteBuffer slab = slabs[block / blocksPerSlab];
+            slab.position((block % blocksPerSlab) * BLOCK_SIZE);
+            slab.put(data, offset, length);
+            offset += length;
+            blocks[i] = block;
+        }
+        index.put(cacheKey, new Node(blocks, data.length, cacheEntry.getExpireTime(), cacheEntry.getHitCount()));
+    }
+
+    @Override
+    public synchronized void invalidateAll() {
+        index.values().forEach(this::release);
+        index.clear();
+    }
+
+    @Override
+    public synchronized void invalidateByPrefix(String keyPrefix) {
+        Iterator<Map.Entry<String, Node>> iterator = index.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Node> entry = iterator.next();
+            if (entry.getKey().startsWith(keyPrefix)) {
+                iterator.remove();
+                release(entry.getValue());
+            }
+        }
+    }
+
+    @Override
+    public synchronized CacheRegionStats getStats(String region) {
+        CacheRegionStats regionStats = new CacheRegionStats();
+        regionStats.setRegion(region);
+        regionStats.setEstimatedSize(index.size());
+        regionStats.setWeightedSize((long) (totalBlocks - freeCount) * BLOCK_SIZE);
+        regionStats.setMaximum((long) totalBlocks * BLOCK_SIZE);
+        regionStats.setHitCount(hitCount);
+        regionStats.setMissCount(missCount);
+        long requestCount = hitCount + missCount;
+        regionStats.setHitRate(requestCount == 0 ? 1.0 : (double) hitCount / requestCount);
+        regionStats.setEvictionCount(evictionCount);
+        regionStats.setEvictionWeight(evictionWeight);
+        return regionStats;
+    }
+
+    private void remove(String cacheKey) {
+        Node node = index.remove(cacheKey);
+        if (node != null) {
+            release(node);
+        }
+    }
+
+    /**
+     * 归还条目占用的块
+     */
+    private void release(Node node) {
+        for (int block : node.blocks) {
+            freeBlocks[freeCount++] = block;
+        }
+    }
+
+    /**
+     * 索引节点：条目占用的块、字节数、过期时间和命中次数
+     */
+    private static class Node {
+
+        private final int[] blocks;
+
+        private final int length;
+
+        private final long expireTime;
+
+        private final AtomicInteger hitCount;
+
+        private Node(int[] blocks, int length, long expireTime, AtomicInteger hitCount) {
+            this.blocks = blocks;
+            this.length = length;
+            this.expireTime = expireTime;
+            this.hitCount = hitCount;
+        }
+    }
+}
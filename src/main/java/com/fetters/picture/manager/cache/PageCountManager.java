@@ -0,0 +1,233 @@
+package com.fetters.picture.manager.cache;
+
+import cn.hutool.core.util.RandomUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONUtil;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.baomidou.mybatisplus.extension.service.IService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import javax.annotation.Resource;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分页总数缓存
+ * <p>
+ * 分页插件每次分页都会额外执行一次 COUNT 查询。这里按 区域（表）+ 范围 + 归一化后的查询条件 缓存总数，
+ * 命中时分页查询关闭 searchCount，只查询当前页数据；未命中时由分页插件照常 COUNT，再写入缓存。
+ * <p>
+ * 失效方式与图片分页缓存相同，使用 Redis 中的版本号（generation）：写操作只需对所在范围及 {@link #ALL_SCOPE} 的版本号 INCR，
+ * 另有区域版本号用于使整个区域失效。
+ * <p>
+ * 计数模式（picture.count.mode）：
+ * <ul>
+ *     <li>exact：不缓存，每次精确 COUNT</li>
+ *     <li>cached（默认）：缓存精确总数，写操作后失效</li>
+ *     <li>estimated：无筛选条件的全表分页直接使用 MySQL 统计信息中的估算行数，其余同 cached</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class PageCountManager {
+
+    /**
+     * 区域：图片
+     */
+    public static final String PICTURE_REGION = "picture";
+
+    /**
+     * 区域：空间
+     */
+    public static final String SPACE_REGION = "space";
+
+    /**
+     * 区域：用户
+     */
+    public static final String USER_REGION = "user";
+
+    /**
+     * 范围：不限范围的查询，区域内任意写操作都会使其失效
+     */
+    public static final String ALL_SCOPE = "all";
+
+    /**
+     * 缓存 key 前缀
+     */
+    private static final String CACHE_KEY_PREFIX = "page:count:";
+
+    private static final String EXACT_MODE = "exact";
+
+    private static final String ESTIMATED_MODE = "estimated";
+
+    /**
+     * 查询表估算行数（InnoDB 统计信息，不扫描数据）
+     */
+    private static final String ESTIMATE_SQL = "SELECT TABLE_ROWS FROM information_schema.TABLES " +
+            "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?";
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * 计数模式：exact / cached / estimated
+     */
+    @Value("${picture.count.mode:cached}")
+    private String mode;
+
+    /**
+     * 本地缓存（key 中带版本号，失效后旧 key 不再被访问）
+     */
+    private final Cache<String, Long> LOCAL_CACHE = Caffeine.newBuilder()
+            .initialCapacity(256)
+            .maximumSize(10000L)
+            .expireAfterWrite(1L, TimeUnit.MINUTES)
+            .recordStats()
+            .build();
+
+    /**
+     * 分页查询，总数优先从缓存获取
+     * @param service      对应表的服务
+     * @param region       区域
+     * @param scope        范围
+     * @param current      当前页号
+     * @param size         页面大小
+     * @param queryWrapper 查询条件
+     * @return 分页结果
+     */
+    public <T> Page<T> page(IService<T> service, String region, String scope, long current, long size,
+                            QueryWrapper<T> queryWrapper) {
+        if (EXACT_MODE.equals(mode)) {
+            return service.page(new Page<>(current, size), queryWrapper);
+        }
+        // 归一化查询条件：只取 WHERE 部分及其参数，排序不影响总数
+        String whereSegment = queryWrapper.getExpression().getNormal().getSqlSegment();
+        if (ESTIMATED_MODE.equals(mode) && StrUtil.isBlank(whereSegment)) {
+            Long estimated = this.estimate(service.getEntityClass());
+            if (estimated != null) {
+                Page<T> page = new Page<>(current, size, estimated, false);
+                return service.page(page, queryWrapper);
+            }
+        }
+        String condition = whereSegment + JSONUtil.toJsonStr(new TreeMap<>(queryWrapper.getParamNameValuePairs()));
+        String cacheKey = this.buildCacheKey(region, scope, condition);
+        Long total = this.getTotal(cacheKey);
+        if (total != null) {
+            // 命中缓存，关闭 COUNT 查询
+            Page<T> page = new Page<>(current, size, total, false);
+            return service.page(page, queryWrapper);
+        }
+        Page<T> page = service.page(new Page<>(current, size), queryWrapper);
+        this.putTotal(cacheKey, page.getTotal());
+        return page;
+    }
+
+    /**
+     * 获取本节点的缓存统计
+     * @return 缓存区域统计
+     */
+    public CacheRegionStats getStats() {
+        return CacheRegionStats.of("pageCount", LOCAL_CACHE);
+    }
+
+    /**
+     * 使区域内某个范围的总数缓存失效，同时使不限范围的总数缓存失效
+     * @param region 区域
+     * @param scope  范围
+     */
+    public void invalidate(String region, String scope) {
+        stringRedisTemplate.opsForValue().increment(getGenerationKey(region, scope));
+        if (!ALL_SCOPE.equals(scope)) {
+            stringRedisTemplate.opsForValue().increment(getGenerationKey(region, ALL_SCOPE));
+        }
+    }
+
+    /**
+     * 使区域内所有范围的总数缓存失效（区域版本号自增）
+     * @param region 区域
+     */
+    public void invalidateAll(String region) {
+        stringRedisTemplate.opsForValue().increment(getGenerationKey(region, null));
+    }
+
+    /**
+     * 构建缓存 key：前缀 + 区域 + 范围 + 区域版本号.范围版本号 + 查询条件摘要
+     */
+    private String buildCacheKey(String region, String scope, String condition) {
+        List<String> generationList = stringRedisTemplate.opsForValue()
+                .multiGet(Arrays.asList(getGenerationKey(region, null), getGenerationKey(region, scope)));
+        String generation = getGeneration(generationList, 0) + "." + getGeneration(generationList, 1);
+        String hashKey = DigestUtils.md5DigestAsHex(condition.getBytes(StandardCharsets.UTF_8));
+        return CACHE_KEY_PREFIX + region + ":" + scope + ":" + generation + ":" + hashKey;
+    }
+
+    /**
+     * 获取版本号，不存在时为 0
+     */
+    private String getGeneration(List<String> generationList, int index) {
+        String generation = generationList == null ? null : generationList.get(index);
+        return StrUtil.blankToDefault(generation, "0");
+    }
+
+    /**
+     * 查询缓存的总数，先查本地缓存，未命中再查 Redis 并回填本地缓存
+     */
+    private Long getTotal(String cacheKey) {
+        Long total = LOCAL_CACHE.getIfPresent(cacheKey);
+        if (total != null) {
+            return total;
+        }
+        String cachedValue = stringRedisTemplate.opsForValue().get(cacheKey);
+        if (cachedValue == null) {
+            return null;
+        }
+        total = Long.parseLong(cachedValue);
+        LOCAL_CACHE.put(cacheKey, total);
+        return total;
+    }
+
+    /**
+     * 写入两级缓存，Redis 过期时间 5 - 10 分钟，防止缓存雪崩
+     */
+    private void putTotal(String cacheKey, long total) {
+        int cacheExpireTime = 300 + RandomUtil.randomInt(0, 300);
+        stringRedisTemplate.opsForValue().set(cacheKey, String.valueOf(total), cacheExpireTime, TimeUnit.SECONDS);
+        LOCAL_CACHE.put(cacheKey, total);
+    }
+
+    /**
+     * 获取表的估算行数，获取失败时返回 null（回退为缓存的精确总数）
+     */
+    private Long estimate(Class<?> entityClass) {
+        try {
+            String tableName = TableInfoHelper.getTableInfo(entityClass).getTableName();
+            return jdbcTemplate.queryForObject(ESTIMATE_SQL, Long.class, tableName);
+        } catch (Exception e) {
+            log.warn("获取表估算行数失败，使用精确总数", e);
+            return null;
+        }
+    }
+
+    /**
+     * 版本号 key，范围为空时表示区域版本号
+     */
+    private String getGenerationKey(String region, String scope) {
+        String generationKey = CACHE_KEY_PREFIX + region + ":generation";
+        return scope == null ? generationKey : generationKey + ":" + scope;
+    }
+}
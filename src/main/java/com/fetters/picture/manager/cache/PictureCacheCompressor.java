@@ -0,0 +1,58 @@
+package com.fetters.picture.manager.cache;
+
+import cn.hutool.core.util.ZipUtil;
+
+/**
+ * 图片分页缓存 Redis 值压缩
+ * <p>
+ * 压缩格式为标准 gzip，以 gzip 头部魔数（0x1f 0x8b）作为格式标识：各编解码器输出的首字节均不会是 0x1f
+ * （JSON 以 '{' 开头，二进制以版本号开头），因此压缩与未压缩的缓存值可以共存，读取时按头部自动识别。
+ * <p>
+ * 使用 gzip 而不是更快的 LZ4，是因为压缩结果可以直接作为 Content-Encoding: gzip 的响应体复用，
+ * 命中 Redis 时本地缓存无需再次压缩。
+ */
+public final class PictureCacheCompressor {
+
+    private PictureCacheCompressor() {
+        // 工具类不需要实例化
+    }
+
+    /**
+     * 超过该长度（字节）才压缩，较小的值压缩收益不大
+     */
+    public static final int MIN_COMPRESS_LENGTH = 1024;
+
+    private static final byte GZIP_MAGIC_0 = (byte) 0x1f;
+
+    private static final byte GZIP_MAGIC_1 = (byte) 0x8b;
+
+    /**
+     * 是否为压缩后的值
+     * @param value 缓存值
+     * @return 是否压缩
+     */
+    public static boolean isCompressed(byte[] value) {
+        return value != null && value.length >= 2 && value[0] == GZIP_MAGIC_0 && value[1] == GZIP_MAGIC_1;
+    }
+
+    /**
+     * 压缩缓存字节，长度未达到阈值时返回 null（按原样存储）
+     * @param data 缓存字节
+     * @return 压缩后的字节
+     */
+    public static byte[] compress(byte[] data) {
+        if (data.length < MIN_COMPRESS_LENGTH) {
+            return null;
+        }
+        return ZipUtil.gzip(data);
+    }
+
+    /**
+     * 解压缓存值，未压缩的值原样返回
+     * @param value 缓存值
+     * @return 缓存字节
+     */
+    public static byte[] decompress(byte[] value) {
+        return isCompressed(value) ? ZipUtil.unGzip(value) : value;
+    }
+}
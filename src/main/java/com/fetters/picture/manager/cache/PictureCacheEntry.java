@@ -0,0 +1,90 @@
+package com.fetters.picture.manager.cache;
+
+import cn.hutool.core.util.ZipUtil;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 缓存条目：编码后的缓存字节，以及按需生成并复用的 gzip 压缩字节
+ * <p>
+ * 同时记录条目的过期时间和本地命中次数，用于判断热点条目是否需要提前刷新。
+ */
+public class PictureCacheEntry {
+
+    /**
+     * 编码后的缓存字节
+     */
+    private final byte[] data;
+
+    /**
+     * gzip 压缩后的字节（首次使用时生成）
+     */
+    private volatile byte[] gzipData;
+
+    /**
+     * 过期时间（毫秒时间戳），取本地缓存和 Redis 中较早的过期时间
+     */
+    private final long expireTime;
+
+    /**
+     * 本地命中次数
+     */
+    private final AtomicInteger hitCount;
+
+    public PictureCacheEntry(byte[] data) {
+        this(data, Long.MAX_VALUE);
+    }
+
+    public PictureCacheEntry(byte[] data, long expireTime) {
+        this(data, expireTime, new AtomicInteger());
+    }
+
+    /**
+     * 堆外缓存每次读取都会生成新的条目，命中次数由索引共享
+     */
+    PictureCacheEntry(byte[] data, long expireTime, AtomicInteger hitCount) {
+        this.data = data;
+        this.expireTime = expireTime;
+        this.hitCount = hitCount;
+    }
+
+    /**
+     * Redis 中存储的是 gzip 压缩值时，直接作为 gzip 字节复用
+     */
+    PictureCacheEntry(byte[] data, byte[] gzipData, long expireTime) {
+        this(data, expireTime);
+        this.gzipData = gzipData;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    /**
+     * 获取 gzip 压缩后的字节，只压缩一次，之后的请求直接复用
+     */
+    public byte[] getGzipData() {
+        byte[] result = gzipData;
+        if (result == null) {
+            result = ZipUtil.gzip(data);
+            gzipData = result;
+        }
+        return result;
+    }
+
+    public long getExpireTime() {
+        return expireTime;
+    }
+
+    AtomicInteger getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * 记录一次命中
+     * @return 累计命中次数
+     */
+    public int hit() {
+        return hitCount.incrementAndGet();
+    }
+}
@@ -0,0 +1,129 @@
+package com.fetters.picture.manager.cache;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.lang.hash.MurmurHash;
+import cn.hutool.core.util.StrUtil;
+import com.fetters.picture.model.dto.picture.PictureQueryRequest;
+
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 图片分页缓存 key 构建器
+ * <p>
+ * 等价的查询应得到相同的 key：先对查询请求归一化（文本去除首尾空白、空串视为未设置，标签去重排序，
+ * 排序顺序统一为 ascend / descend），再按固定字段顺序拼接非空字段，最后计算 128 位 MurmurHash，
+ * 不经过 JSON 序列化。
+ * <p>
+ * 归一化会修改请求本身，保证数据库查询与缓存 key 使用同一份条件。新增查询字段时需要同步加入 {@link #build}。
+ */
+public final class PictureCacheKeyBuilder {
+
+    private PictureCacheKeyBuilder() {
+        // 工具类不需要实例化
+    }
+
+    private static final String ASCEND = "ascend";
+
+    private static final String DESCEND = "descend";
+
+    /**
+     * 归一化查询请求
+     * @param pictureQueryRequest 图片查询请求
+     */
+    public static void normalize(PictureQueryRequest pictureQueryRequest) {
+        pictureQueryRequest.setName(StrUtil.trimToNull(pictureQueryRequest.getName()));
+        pictureQueryRequest.setIntroduction(StrUtil.trimToNull(pictureQueryRequest.getIntroduction()));
+        pictureQueryRequest.setCategory(StrUtil.trimToNull(pictureQueryRequest.getCategory()));
+        pictureQueryRequest.setPicFormat(StrUtil.trimToNull(pictureQueryRequest.getPicFormat()));
+        pictureQueryRequest.setSearchText(StrUtil.trimToNull(pictureQueryRequest.getSearchText()));
+        pictureQueryRequest.setReviewMessage(StrUtil.trimToNull(pictureQueryRequest.getReviewMessage()));
+        pictureQueryRequest.setSortField(StrUtil.trimToNull(pictureQueryRequest.getSortField()));
+        // 标签之间是且（或）的关系，与顺序无关
+        List<String> tags = pictureQueryRequest.getTags();
+        if (tags != null) {
+            List<String> normalizedTags = tags.stream()
+                    .filter(StrUtil::isNotBlank)
+                    .map(String::trim)
+                    .distinct()
+                    .sorted()
+                    .collect(Collectors.toList());
+            pictureQueryRequest.setTags(normalizedTags.isEmpty() ? null : normalizedTags);
+        }
+        // 返回字段与顺序无关
+        List<String> fields = pictureQueryRequest.getFields();
+        if (fields != null) {
+            List<String> normalizedFields = fields.stream()
+                    .filter(StrUtil::isNotBlank)
+                    .map(String::trim)
+                    .distinct()
+                    .sorted()
+                    .collect(Collectors.toList());
+            pictureQueryRequest.setFields(normalizedFields.isEmpty() ? null : normalizedFields);
+        }
+        // 除 ascend 外均按降序处理
+        pictureQueryRequest.setSortOrder(ASCEND.equals(pictureQueryRequest.getSortOrder()) ? ASCEND : DESCEND);
+    }
+
+    /**
+     * 根据归一化后的查询请求构建 key 摘要
+     * @param pictureQueryRequest 图片查询请求（已归一化）
+     * @return 32 位十六进制摘要
+     */
+    public static String build(PictureQueryRequest pictureQueryRequest) {
+        StringBuilder builder = new StringBuilder(128);
+        builder.append(pictureQueryRequest.getCurrent()).append('/').append(pictureQueryRequest.getPageSize());
+        // 未指定排序字段时，排序顺序不影响结果
+        if (pictureQueryRequest.getSortField() != null) {
+            append(builder, "sort", pictureQueryRequest.getSortField() + " " + pictureQueryRequest.getSortOrder());
+        }
+        append(builder, "id", pictureQueryRequest.getId());
+        append(builder, "name", pictureQueryRequest.getName());
+        append(builder, "intro", pictureQueryRequest.getIntroduction());
+        append(builder, "cat", pictureQueryRequest.getCategory());
+        if (CollUtil.isNotEmpty(pictureQueryRequest.getTags())) {
+            append(builder, "tags", String.join("\u0001", pictureQueryRequest.getTags()));
+            if (pictureQueryRequest.isAnyTag()) {
+                append(builder, "anyTag", 1);
+            }
+        }
+        append(builder, "size", pictureQueryRequest.getPicSize());
+        append(builder, "w", pictureQueryRequest.getPicWidth());
+        append(builder, "h", pictureQueryRequest.getPicHeight());
+        append(builder, "scale", pictureQueryRequest.getPicScale());
+        append(builder, "fmt", pictureQueryRequest.getPicFormat());
+        append(builder, "q", pictureQueryRequest.getSearchText());
+        append(builder, "uid", pictureQueryRequest.getUserId());
+        append(builder, "review", pictureQueryRequest.getReviewStatus());
+        append(builder, "reviewMsg", pictureQueryRequest.getReviewMessage());
+        append(builder, "reviewer", pictureQueryRequest.getReviewerId());
+        append(builder, "reviewTime", pictureQueryRequest.getReviewTime());
+        append(builder, "space", pictureQueryRequest.getSpaceId());
+        if (pictureQueryRequest.isNullSpaceId()) {
+            append(builder, "nullSpace", 1);
+        }
+        append(builder, "editFrom", pictureQueryRequest.getStartEditTime());
+        append(builder, "editTo", pictureQueryRequest.getEndEditTime());
+        if (CollUtil.isNotEmpty(pictureQueryRequest.getFields())) {
+            append(builder, "fields", String.join(",", pictureQueryRequest.getFields()));
+        }
+        long[] hash = MurmurHash.hash128(builder);
+        return String.format("%016x%016x", hash[0], hash[1]);
+    }
+
+    /**
+     * 拼接非空字段，字段名在前避免不同字段的值互相混淆
+     */
+    private static void append(StringBuilder builder, String name, Object value) {
+        if (value == null) {
+            return;
+        }
+        builder.append('\u0000').append(name).append('=');
+        if (value instanceof Date) {
+            builder.append(((Date) value).getTime());
+        } else {
+            builder.append(value);
+        }
+    }
+}
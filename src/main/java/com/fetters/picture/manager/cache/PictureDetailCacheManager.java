@@ -0,0 +1,136 @@
+package com.fetters.picture.manager.cache;
+
+import cn.hutool.core.util.RandomUtil;
+import cn.hutool.json.JSONUtil;
+import com.fetters.picture.model.vo.PictureVO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 图片详情多级缓存（本地 Caffeine + Redis），按图片 id 读穿透
+ * <p>
+ * 图片不存在时同样缓存一小段时间（空值缓存），防止随机 id 请求穿透到数据库。
+ * 图片编辑、审核、删除、重新上传后删除缓存，并通过 Redis 频道广播给其他节点清理本地缓存。
+ * <p>
+ * 本地缓存通过 Caffeine 按 key 加锁加载，同一节点同一 id 只会有一个线程查询 Redis / 数据库。
+ */
+@Component
+public class PictureDetailCacheManager {
+
+    /**
+     * 缓存 key 前缀
+     */
+    private static final String CACHE_KEY_PREFIX = "picture:getPictureVO:";
+
+    /**
+     * 缓存失效广播频道（消息内容为图片 id）
+     */
+    public static final String INVALIDATE_CHANNEL = "picture:detail:invalidate";
+
+    /**
+     * Redis 中的空值
+     */
+    private static final String NULL_VALUE = "";
+
+    /**
+     * 空值缓存时间（秒）
+     */
+    private static final long NULL_EXPIRE_SECONDS = 60L;
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * 本地缓存，Optional.empty() 表示图片不存在，过期时间比正常值短
+     */
+    private final Cache<Long, Optional<PictureVO>> LOCAL_CACHE =
+            Caffeine.newBuilder().initialCapacity(1024)
+                    .maximumSize(10000L)
+                    .expireAfter(new Expiry<Long, Optional<PictureVO>>() {
+                        @Override
+                        public long expireAfterCreate(Long key, Optional<PictureVO> value, long currentTime) {
+                            long expireSeconds = value.isPresent() ? 300L : NULL_EXPIRE_SECONDS / 2;
+                            return TimeUnit.SECONDS.toNanos(expireSeconds);
+                        }
+
+                        @Override
+                        public long expireAfterUpdate(Long key, Optional<PictureVO> value, long currentTime,
+                                                      long currentDuration) {
+                            return expireAfterCreate(key, value, currentTime);
+                        }
+
+                        @Override
+                        public long expireAfterRead(Long key, Optional<PictureVO> value, long currentTime,
+                                                    long currentDuration) {
+                            return currentDuration;
+                        }
+                    })
+                    .recordStats()
+                    .build();
+
+    /**
+     * 查询图片详情，未命中时调用 loader 查询数据库并写入缓存
+     * @param pictureId 图片 id
+     * @param loader    缓存未命中时的加载逻辑，图片不存在时返回 null
+     * @return 图片封装类，不存在时返回 null
+     */
+    public PictureVO get(long pictureId, Function<Long, PictureVO> loader) {
+        return LOCAL_CACHE.get(pictureId, id -> loadFromRedis(id, loader)).orElse(null);
+    }
+
+    /**
+     * 获取本节点的缓存统计
+     * @return 缓存区域统计
+     */
+    public CacheRegionStats getStats() {
+        return CacheRegionStats.of("pictureDetail", LOCAL_CACHE);
+    }
+
+    /**
+     * 删除图片详情缓存，并广播给其他节点
+     * @param pictureId 图片 id
+     */
+    public void invalidate(long pictureId) {
+        stringRedisTemplate.delete(CACHE_KEY_PREFIX + pictureId);
+        evictLocal(pictureId);
+        stringRedisTemplate.convertAndSend(INVALIDATE_CHANNEL, String.valueOf(pictureId));
+    }
+
+    /**
+     * 清理本节点的本地缓存（收到失效广播时调用）
+     * @param pictureId 图片 id
+     */
+    public void evictLocal(long pictureId) {
+        LOCAL_CACHE.invalidate(pictureId);
+    }
+
+    /**
+     * 查询 Redis，未命中再调用 loader 并回写 Redis
+     */
+    private Optional<PictureVO> loadFromRedis(Long pictureId, Function<Long, PictureVO> loader) {
+        String cacheKey = CACHE_KEY_PREFIX + pictureId;
+        String cachedValue = stringRedisTemplate.opsForValue().get(cacheKey);
+        if (cachedValue != null) {
+            return NULL_VALUE.equals(cachedValue)
+                    ? Optional.empty()
+                    : Optional.of(JSONUtil.toBean(cachedValue, PictureVO.class));
+        }
+        PictureVO pictureVO = loader.apply(pictureId);
+        if (pictureVO == null) {
+            stringRedisTemplate.opsForValue().set(cacheKey, NULL_VALUE, NULL_EXPIRE_SECONDS, TimeUnit.SECONDS);
+            return Optional.empty();
+        }
+        // 过期时间随机，防止缓存雪崩
+        int expireTime = 300 + RandomUtil.randomInt(0, 300);
+        stringRedisTemplate.opsForValue().set(cacheKey, JSONUtil.toJsonStr(pictureVO), expireTime, TimeUnit.SECONDS);
+        return Optional.of(pictureVO);
+    }
+}
@@ -0,0 +1,618 @@
+package com.fetters.picture.manager.cache;
+
+import cn.hutool.core.thread.ExecutorBuilder;
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import cn.hutool.core.util.RandomUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONUtil;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fetters.picture.common.ResultUtils;
+import com.fetters.picture.manager.cache.codec.PictureCacheCodec;
+import com.fetters.picture.model.dto.picture.PictureQueryRequest;
+import com.fetters.picture.model.vo.PictureVO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 图片分页列表多级缓存（本地 Caffeine / 堆外内存 + Redis）
+ * <p>
+ * 缓存 key 中携带 Redis 中维护的版本号（generation），失效时只需对版本号执行一次 INCR，
+ * 旧版本的缓存不再被访问，随 TTL 自然过期，无需 SCAN + DEL。
+ * <p>
+ * 缓存按范围（scope）划分：公共图库、每个空间各自一个范围，每个范围有独立的版本号，
+ * 写操作只使其涉及的范围失效；另有一个全局版本号，用于清空所有范围。
+ * <p>
+ * 版本号在本地缓存一小段时间，失效时通过 Redis 频道广播最新版本号，各节点据此更新本地版本号
+ * 并清理对应范围的本地缓存，本地缓存命中时无需访问 Redis；即使广播丢失，本地版本号也会在短时间后过期重新拉取。
+ * <p>
+ * 缓存未命中时合并并发加载（single-flight）：同一节点同一 key 只有一个线程查询数据库，其余线程等待其结果；
+ * 节点之间通过短时 Redis 锁协调，未抢到锁的节点等待持锁节点写入 Redis 后直接读取。
+ * <p>
+ * 两级缓存中均保存经 {@link PictureCacheCodec} 编码后的字节，读取时解码为带类型的 PictureVO 分页。
+ * 默认编码即为接口最终响应体，命中时可以跳过反序列化和序列化，直接写回客户端（本地缓存同时复用 gzip 压缩结果）。
+ * <p>
+ * Redis 中超过 1 KB 的值以 gzip 压缩存储（见 {@link PictureCacheCompressor}），减少 Redis 内存和网络传输；
+ * 压缩结果同时作为本地缓存的 gzip 字节复用。
+ * <p>
+ * 热点条目提前刷新（refresh-ahead）：条目被多次命中且临近过期时，由后台线程重新加载并重置过期时间，
+ * 刷新期间请求继续使用旧值，避免热点页面过期后由用户请求承担查询数据库的延迟。
+ */
+@Slf4j
+@Component
+public class PictureListCacheManager {
+
+    /**
+     * 缓存 key 前缀
+     */
+    private static final String CACHE_KEY_PREFIX = "picture:listPictureVOByPage:";
+
+    /**
+     * 全局缓存版本号 key
+     */
+    private static final String GENERATION_KEY = CACHE_KEY_PREFIX + "generation";
+
+    /**
+     * 范围缓存版本号 key 前缀
+     */
+    private static final String SCOPE_GENERATION_KEY_PREFIX = GENERATION_KEY + ":";
+
+    /**
+     * 公共图库范围
+     */
+    public static final String PUBLIC_SCOPE = "public";
+
+    /**
+     * 空间范围前缀
+     */
+    private static final String SPACE_SCOPE_PREFIX = "space:";
+
+    /**
+     * 全局范围（失效消息中表示所有范围）
+     */
+    private static final String ALL_SCOPE = "*";
+
+    /**
+     * 缓存失效广播频道
+     */
+    public static final String INVALIDATE_CHANNEL = "picture:cache:invalidate";
+
+    /**
+     * 加载锁 key 后缀
+     */
+    private static final String LOCK_KEY_SUFFIX = ":lock";
+
+    /**
+     * 加载锁过期时间（毫秒），防止持锁节点宕机导致死锁
+     */
+    private static final long LOCK_EXPIRE_MILLIS = 3000L;
+
+    /**
+     * 未抢到锁时，轮询 Redis 的间隔（毫秒）和最大次数
+     */
+    private static final long LOCK_WAIT_INTERVAL_MILLIS = 50L;
+
+    private static final int LOCK_WAIT_TIMES = 20;
+
+    /**
+     * 本地缓存过期时间（毫秒）
+     */
+    private static final long LOCAL_EXPIRE_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    /**
+     * 距离过期不足该时间（毫秒）时提前刷新
+     */
+    private static final long REFRESH_AHEAD_MILLIS = TimeUnit.SECONDS.toMillis(60);
+
+    /**
+     * 命中次数达到该值才视为热点条目，冷门条目过期后正常淘汰
+     */
+    private static final int HOT_HIT_COUNT = 3;
+
+    /**
+     * 释放锁脚本（仅释放自己持有的锁）
+     */
+    private static final DefaultRedisScript<Long> UNLOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private RedisTemplate<String, byte[]> byteRedisTemplate;
+
+    @Resource
+    private PictureCacheCodec pictureCacheCodec;
+
+    @Resource
+    private ObjectMapper objectMapper;
+
+    /**
+     * 是否压缩写入 Redis 的值（关闭后仍可读取已压缩的值）
+     */
+    @Value("${picture.cache.compress.enabled:true}")
+    private boolean compressEnabled;
+
+    /**
+     * 本地缓存（堆内或堆外），按字节数限制容量
+     */
+    private final PictureLocalCache LOCAL_CACHE;
+
+    /**
+     * 本地版本号缓存（范围 => 版本号），短时间过期，兜底广播丢失的情况
+     */
+    private final Cache<String, Long> GENERATION_CACHE =
+            Caffeine.newBuilder().initialCapacity(64)
+                    .maximumSize(10000L)
+                    .expireAfterWrite(10L, TimeUnit.SECONDS)
+                    .build();
+
+    /**
+     * 正在加载中的 key（key => 加载结果），用于合并同一节点的并发加载
+     */
+    private final Map<String, CompletableFuture<PictureCacheEntry>> LOADING_MAP = new ConcurrentHashMap<>();
+
+    /**
+     * 正在后台刷新的 key，避免重复提交刷新任务
+     */
+    private final Set<String> REFRESHING_KEYS = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 后台刷新线程池，队列满时放弃刷新（条目过期后由请求正常加载）
+     */
+    private final ExecutorService REFRESH_EXECUTOR = ExecutorBuilder.create()
+            .setCorePoolSize(2)
+            .setMaxPoolSize(2)
+            .setWorkQueue(new LinkedBlockingQueue<>(100))
+            .setThreadFactory(ThreadFactoryBuilder.create().setNamePrefix("picture-cache-refresh-").setDaemon(true).build())
+            .build();
+
+    /**
+     * 命中统计（本地缓存的命中统计由本地缓存自身记录）
+     */
+    private final LongAdder redisHitCounter = new LongAdder();
+
+    private final LongAdder loadCounter = new LongAdder();
+
+    private final LongAdder loadTimeCounter = new LongAdder();
+
+    /**
+     * @param localMaxBytes 本地缓存最大字节数
+     * @param offHeap       是否将本地缓存字节保存在堆外
+     */
+    public PictureListCacheManager(@Value("${picture.cache.local-max-bytes:67108864}") long localMaxBytes,
+                                   @Value("${picture.cache.off-heap.enabled:false}") boolean offHeap) {
+        // 两种本地缓存均按条目的过期时间移除（不超过 5 分钟，且不晚于 Redis 中的过期时间）
+        this.LOCAL_CACHE = offHeap
+                ? new OffHeapPictureLocalCache(localMaxBytes)
+                : new CaffeinePictureLocalCache(localMaxBytes);
+    }
+
+    /**
+     * 获取图片所属的缓存范围
+     * @param spaceId 空间 id，为空表示公共图库
+     * @return 缓存范围
+     */
+    public static String getScope(Long spaceId) {
+        return spaceId == null ? PUBLIC_SCOPE : SPACE_SCOPE_PREFIX + spaceId;
+    }
+
+    /**
+     * 构建缓存 key（包含全局版本号和范围版本号），请求需先经 {@link PictureCacheKeyBuilder#normalize} 归一化
+     * @param scope               缓存范围
+     * @param pictureQueryRequest 图片查询请求
+     * @return 缓存 key
+     */
+    public String buildCacheKey(String scope, PictureQueryRequest pictureQueryRequest) {
+        String hashKey = PictureCacheKeyBuilder.build(pictureQueryRequest);
+        Long generation = GENERATION_CACHE.getIfPresent(ALL_SCOPE);
+        Long scopeGeneration = GENERATION_CACHE.getIfPresent(scope);
+        if (generation == null || scopeGeneration == null) {
+            // 本地没有版本号，一次 MGET 同时取出全局版本号和范围版本号
+            List<String> generationList = stringRedisTemplate.opsForValue()
+                    .multiGet(Arrays.asList(GENERATION_KEY, getGenerationKey(scope)));
+            generation = 0L;
+            scopeGeneration = 0L;
+            if (generationList != null) {
+                generation = parseGeneration(generationList.get(0));
+                scopeGeneration = parseGeneration(generationList.get(1));
+            }
+            // 取较大值，避免覆盖期间收到的更新版本号
+            generation = GENERATION_CACHE.asMap().merge(ALL_SCOPE, generation, Math::max);
+            scopeGeneration = GENERATION_CACHE.asMap().merge(scope, scopeGeneration, Math::max);
+        }
+        return CACHE_KEY_PREFIX + scope + ":" + generation + "." + scopeGeneration + ":"
+                + pictureCacheCodec.getFormat() + ":" + hashKey;
+    }
+
+    /**
+     * 获取本节点当前使用的范围版本号（构建缓存 key 时已从 Redis 拉取或随失效消息更新）
+     * @param scope 缓存范围
+     * @return 范围版本号，本地没有时返回 null
+     */
+    public Long getLocalGeneration(String scope) {
+        return GENERATION_CACHE.getIfPresent(scope);
+    }
+
+    /**
+     * 读取 Redis 中所有范围的版本号（SCAN 版本号 key，只在图片索引加载前调用一次）
+     * @return 范围 => 版本号
+     */
+    public Map<String, Long> getScopeGenerations() {
+        List<String> scopeList = stringRedisTemplate.execute((RedisCallback<List<String>>) connection -> {
+            List<String> result = new ArrayList<>();
+            ScanOptions scanOptions = ScanOptions.scanOptions().match(SCOPE_GENERATION_KEY_PREFIX + "*").count(1000L).build();
+            try (Cursor<byte[]> cursor = connection.scan(scanOptions)) {
+                while (cursor.hasNext()) {
+                    result.add(new String(cursor.next(), StandardCharsets.UTF_8).substring(SCOPE_GENERATION_KEY_PREFIX.length()));
+                }
+            }
+            return result;
+        });
+        Map<String, Long> generationMap = new HashMap<>();
+        if (scopeList == null || scopeList.isEmpty()) {
+            return generationMap;
+        }
+        List<String> keyList = new ArrayList<>(scopeList.size());
+        scopeList.forEach(scope -> keyList.add(getGenerationKey(scope)));
+        List<String> generationList = stringRedisTemplate.opsForValue().multiGet(keyList);
+        for (int i = 0; generationList != null && i < scopeList.size(); i++) {
+            generationMap.put(scopeList.get(i), parseGeneration(generationList.get(i)));
+        }
+        return generationMap;
+    }
+
+    /**
+     * 查询缓存，先查本地缓存，未命中再查 Redis 并回填本地缓存
+     * @param cacheKey 缓存 key
+     * @return 图片封装分页，未命中返回 null
+     */
+    public Page<PictureVO> get(String cacheKey) {
+        PictureCacheEntry cacheEntry = getEntry(cacheKey);
+        return cacheEntry == null ? null : pictureCacheCodec.decode(cacheEntry.getData());
+    }
+
+    /**
+     * 查询缓存，未命中时调用 loader 加载并写入缓存（合并并发加载）
+     * @param cacheKey 缓存 key
+     * @param loader   缓存未命中时的加载逻辑
+     * @return 图片封装分页
+     */
+    public Page<PictureVO> get(String cacheKey, Supplier<Page<PictureVO>> loader) {
+        return pictureCacheCodec.decode(getEntry(cacheKey, loader).getData());
+    }
+
+    /**
+     * 查询缓存并返回接口响应体字节（BaseResponse JSON），未命中时调用 loader 加载并写入缓存
+     * @param cacheKey 缓存 key
+     * @param loader   缓存未命中时的加载逻辑
+     * @return 响应体缓存条目
+     */
+    public PictureCacheEntry getResponseBody(String cacheKey, Supplier<Page<PictureVO>> loader) {
+        PictureCacheEntry cacheEntry = getEntry(cacheKey, loader);
+        if (pictureCacheCodec.isResponseBody()) {
+            // 缓存字节即为响应体，直接复用
+            return cacheEntry;
+        }
+        // 其他编码方式需要解码后重新序列化
+        Page<PictureVO> picturePage = pictureCacheCodec.decode(cacheEntry.getData());
+        try {
+            return new PictureCacheEntry(objectMapper.writeValueAsBytes(ResultUtils.success(picturePage)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 写入缓存
+     * @param cacheKey    缓存 key
+     * @param picturePage 图片封装分页
+     */
+    public void put(String cacheKey, Page<PictureVO> picturePage) {
+        putBytes(cacheKey, pictureCacheCodec.encode(picturePage));
+    }
+
+    /**
+     * 查询缓存条目，先查本地缓存，未命中再查 Redis 并回填本地缓存
+     */
+    private PictureCacheEntry getEntry(String cacheKey) {
+        // 1.先从本地缓存中查询
+        PictureCacheEntry cacheEntry = LOCAL_CACHE.getIfPresent(cacheKey);
+        if (cacheEntry != null) {
+            return cacheEntry;
+        }
+        // 2.本地缓存未命中，则查询 redis 分布式缓存，同时获取剩余过期时间
+        byte[] rawKey = cacheKey.getBytes(StandardCharsets.UTF_8);
+        List<Object> resultList = byteRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.stringCommands().get(rawKey);
+            connection.keyCommands().pTtl(rawKey);
+            return null;
+        });
+        byte[] redisValue = (byte[]) resultList.get(0);
+        if (redisValue == null) {
+            return null;
+        }
+        // 缓存命中，更新本地缓存
+        redisHitCounter.increment();
+        Long ttlMillis = (Long) resultList.get(1);
+        long expireTime = ttlMillis == null || ttlMillis < 0 ? Long.MAX_VALUE : System.currentTimeMillis() + ttlMillis;
+        return putLocalFromRedis(cacheKey, redisValue, expireTime);
+    }
+
+    /**
+     * 查询缓存条目，未命中时调用 loader 加载并写入缓存（合并并发加载）
+     */
+    private PictureCacheEntry getEntry(String cacheKey, Supplier<Page<PictureVO>> loader) {
+        PictureCacheEntry cacheEntry = getEntry(cacheKey);
+        if (cacheEntry != null) {
+            refreshIfNeeded(cacheKey, cacheEntry, loader);
+            return cacheEntry;
+        }
+        // 同一节点已有线程在加载，等待其结果即可
+        CompletableFuture<PictureCacheEntry> future = new CompletableFuture<>();
+        CompletableFuture<PictureCacheEntry> loadingFuture = LOADING_MAP.putIfAbsent(cacheKey, future);
+        if (loadingFuture != null) {
+            return waitLoading(loadingFuture);
+        }
+        try {
+            cacheEntry = loadWithLock(cacheKey, loader);
+            future.complete(cacheEntry);
+            return cacheEntry;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            LOADING_MAP.remove(cacheKey, future);
+        }
+    }
+
+    /**
+     * 写入缓存字节
+     */
+    private PictureCacheEntry putBytes(String cacheKey, byte[] cacheValue) {
+        byte[] compressedValue = compressEnabled ? PictureCacheCompressor.compress(cacheValue) : null;
+        // 更新 redis 缓存，过期时间随机，防止缓存雪崩
+        int expireTime = 300 + RandomUtil.randomInt(0, 300);
+        byte[] redisValue = compressedValue == null ? cacheValue : compressedValue;
+        byteRedisTemplate.opsForValue().set(cacheKey, redisValue, expireTime, TimeUnit.SECONDS);
+        // 更新本地缓存
+        return putLocal(cacheKey, cacheValue, compressedValue,
+                System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(expireTime));
+    }
+
+    /**
+     * 将 Redis 中的值写入本地缓存，压缩的值解压后写入，并复用压缩结果
+     */
+    private PictureCacheEntry putLocalFromRedis(String cacheKey, byte[] redisValue, long redisExpireTime) {
+        if (PictureCacheCompressor.isCompressed(redisValue)) {
+            return putLocal(cacheKey, PictureCacheCompressor.decompress(redisValue), redisValue, redisExpireTime);
+        }
+        return putLocal(cacheKey, redisValue, null, redisExpireTime);
+    }
+
+    /**
+     * 写入本地缓存，过期时间取本地缓存和 Redis 中较早的一个
+     */
+    private PictureCacheEntry putLocal(String cacheKey, byte[] cacheValue, byte[] gzipValue, long redisExpireTime) {
+        long expireTime = Math.min(System.currentTimeMillis() + LOCAL_EXPIRE_MILLIS, redisExpireTime);
+        PictureCacheEntry cacheEntry = new PictureCacheEntry(cacheValue, gzipValue, expireTime);
+        LOCAL_CACHE.put(cacheKey, cacheEntry);
+        return cacheEntry;
+    }
+
+    /**
+     * 持有 Redis 锁时加载数据，未抢到锁则等待其他节点加载完成
+     */
+    private PictureCacheEntry loadWithLock(String cacheKey, Supplier<Page<PictureVO>> loader) {
+        String lockKey = cacheKey + LOCK_KEY_SUFFIX;
+        String lockValue = UUID.randomUUID().toString();
+        Boolean locked = stringRedisTemplate.opsForValue()
+                .setIfAbsent(lockKey, lockValue, LOCK_EXPIRE_MILLIS, TimeUnit.MILLISECONDS);
+        ValueOperations<String, byte[]> opsForValue = byteRedisTemplate.opsForValue();
+        if (!Boolean.TRUE.equals(locked)) {
+            // 其他节点正在加载，轮询 Redis 等待其写入
+            for (int i = 0; i < LOCK_WAIT_TIMES; i++) {
+                try {
+                    Thread.sleep(LOCK_WAIT_INTERVAL_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                byte[] redisValue = opsForValue.get(cacheKey);
+                if (redisValue != null) {
+                    return putLocalFromRedis(cacheKey, redisValue, Long.MAX_VALUE);
+                }
+            }
+            // 等待超时，自行加载
+            return loadAndPut(cacheKey, loader);
+        }
+        try {
+            // 双重检查，可能在抢锁前已有节点写入
+            byte[] redisValue = opsForValue.get(cacheKey);
+            if (redisValue != null) {
+                return putLocalFromRedis(cacheKey, redisValue, Long.MAX_VALUE);
+            }
+            return loadAndPut(cacheKey, loader);
+        } finally {
+            stringRedisTemplate.execute(UNLOCK_SCRIPT, Collections.singletonList(lockKey), lockValue);
+        }
+    }
+
+    /**
+     * 热点条目临近过期时，提交后台刷新任务，当前请求直接返回旧值
+     */
+    private void refreshIfNeeded(String cacheKey, PictureCacheEntry cacheEntry, Supplier<Page<PictureVO>> loader) {
+        int hitCount = cacheEntry.hit();
+        if (hitCount < HOT_HIT_COUNT || System.currentTimeMillis() < cacheEntry.getExpireTime() - REFRESH_AHEAD_MILLIS) {
+            return;
+        }
+        if (!REFRESHING_KEYS.add(cacheKey)) {
+            return;
+        }
+        try {
+            REFRESH_EXECUTOR.execute(() -> {
+                try {
+                    refresh(cacheKey, loader);
+                } catch (Exception e) {
+                    log.warn("图片分页缓存刷新失败, cacheKey = {}", cacheKey, e);
+                } finally {
+                    REFRESHING_KEYS.remove(cacheKey);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            REFRESHING_KEYS.remove(cacheKey);
+        }
+    }
+
+    /**
+     * 后台刷新：抢到 Redis 锁才重新加载，其他节点正在刷新时直接放弃
+     */
+    private void refresh(String cacheKey, Supplier<Page<PictureVO>> loader) {
+        String lockKey = cacheKey + LOCK_KEY_SUFFIX;
+        String lockValue = UUID.randomUUID().toString();
+        Boolean locked = stringRedisTemplate.opsForValue()
+                .setIfAbsent(lockKey, lockValue, LOCK_EXPIRE_MILLIS, TimeUnit.MILLISECONDS);
+        if (!Boolean.TRUE.equals(locked)) {
+            return;
+        }
+        try {
+            loadAndPut(cacheKey, loader);
+        } finally {
+            stringRedisTemplate.execute(UNLOCK_SCRIPT, Collections.singletonList(lockKey), lockValue);
+        }
+    }
+
+    /**
+     * 加载数据，编码后写入缓存
+     */
+    private PictureCacheEntry loadAndPut(String cacheKey, Supplier<Page<PictureVO>> loader) {
+        long startTime = System.nanoTime();
+        byte[] cacheValue = pictureCacheCodec.encode(loader.get());
+        loadCounter.increment();
+        loadTimeCounter.add(System.nanoTime() - startTime);
+        return putBytes(cacheKey, cacheValue);
+    }
+
+    /**
+     * 等待同一节点其他线程的加载结果，加载异常时原样抛出
+     */
+    private PictureCacheEntry waitLoading(CompletableFuture<PictureCacheEntry> loadingFuture) {
+        try {
+            return loadingFuture.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 获取本节点的缓存统计
+     * @return 缓存区域统计
+     */
+    public CacheRegionStats getStats() {
+        CacheRegionStats stats = LOCAL_CACHE.getStats("pictureList");
+        // 加载逻辑不经过本地缓存，加载次数和耗时（查询数据库并编码）单独统计
+        long loadCount = loadCounter.sum();
+        stats.setRedisHitCount(redisHitCounter.sum());
+        stats.setLoadCount(loadCount);
+        stats.setAverageLoadMillis(loadCount == 0 ? 0 : (double) loadTimeCounter.sum() / loadCount / TimeUnit.MILLISECONDS.toNanos(1));
+        return stats;
+    }
+
+    /**
+     * 使指定范围的分页缓存失效（范围版本号自增，并广播给所有节点）
+     * @param scope 缓存范围
+     */
+    public void invalidate(String scope) {
+        Long generation = stringRedisTemplate.opsForValue().increment(getGenerationKey(scope));
+        publishInvalidate(scope, generation);
+    }
+
+    /**
+     * 使指定范围的分页缓存失效，只清理本节点，不单独广播；新版本号由调用方随其他消息通知其他节点（见图片索引同步）
+     * @param scope 缓存范围
+     * @return 失效后的最新版本号
+     */
+    public Long invalidateWithoutBroadcast(String scope) {
+        Long generation = stringRedisTemplate.opsForValue().increment(getGenerationKey(scope));
+        evictLocal(scope, generation);
+        return generation;
+    }
+
+    /**
+     * 使所有范围的分页缓存失效（全局版本号自增，旧缓存随 TTL 过期）
+     */
+    public void invalidateAll() {
+        Long generation = stringRedisTemplate.opsForValue().increment(GENERATION_KEY);
+        publishInvalidate(ALL_SCOPE, generation);
+    }
+
+    /**
+     * 清理本节点指定范围的本地缓存（收到失效广播时调用）
+     * @param scope      缓存范围
+     * @param generation 最新版本号
+     */
+    public void evictLocal(String scope, Long generation) {
+        if (StrUtil.isBlank(scope)) {
+            return;
+        }
+        // 更新本地版本号，之后的请求直接使用新版本号构建 key
+        if (generation != null) {
+            GENERATION_CACHE.asMap().merge(scope, generation, Math::max);
+        } else {
+            GENERATION_CACHE.invalidate(scope);
+        }
+        // 清理对应范围下的本地缓存，及时释放内存
+        if (ALL_SCOPE.equals(scope)) {
+            LOCAL_CACHE.invalidateAll();
+            return;
+        }
+        String scopeKeyPrefix = CACHE_KEY_PREFIX + scope + ":";
+        LOCAL_CACHE.invalidateByPrefix(scopeKeyPrefix);
+    }
+
+    /**
+     * 先清理本节点，再广播失效消息给其他节点
+     */
+    private void publishInvalidate(String scope, Long generation) {
+        evictLocal(scope, generation);
+        CacheInvalidateMessage message = new CacheInvalidateMessage(scope, generation);
+        stringRedisTemplate.convertAndSend(INVALIDATE_CHANNEL, JSONUtil.toJsonStr(message));
+    }
+
+    /**
+     * 获取范围版本号 key
+     */
+    private String getGenerationKey(String scope) {
+        return SCOPE_GENERATION_KEY_PREFIX + scope;
+    }
+
+    /**
+     * 解析版本号，不存在时为 0
+     */
+    private long parseGeneration(String generation) {
+        return StrUtil.isBlank(generation) ? 0L : Long.parseLong(generation);
+    }
+}
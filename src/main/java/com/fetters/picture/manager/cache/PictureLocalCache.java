@@ -0,0 +1,41 @@
+package com.fetters.picture.manager.cache;
+
+/**
+ * 图片分页本地缓存（一级缓存）
+ * <p>
+ * 默认为堆内 Caffeine 缓存，开启 picture.cache.off-heap.enabled 后缓存字节保存在堆外，堆内只保留 key 索引。
+ */
+interface PictureLocalCache {
+
+    /**
+     * 查询缓存条目
+     * @param cacheKey 缓存 key
+     * @return 缓存条目，未命中或已过期返回 null
+     */
+    PictureCacheEntry getIfPresent(String cacheKey);
+
+    /**
+     * 写入缓存条目
+     * @param cacheKey   缓存 key
+     * @param cacheEntry 缓存条目
+     */
+    void put(String cacheKey, PictureCacheEntry cacheEntry);
+
+    /**
+     * 清空缓存
+     */
+    void invalidateAll();
+
+    /**
+     * 删除指定前缀的缓存
+     * @param keyPrefix key 前缀
+     */
+    void invalidateByPrefix(String keyPrefix);
+
+    /**
+     * 获取缓存统计
+     * @param region 缓存区域
+     * @return 缓存区域统计
+     */
+    CacheRegionStats getStats(String region);
+}
@@ -0,0 +1,182 @@
+package com.fetters.picture.manager.cache;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.util.RandomUtil;
+import cn.hutool.json.JSONUtil;
+import com.fetters.picture.model.entity.User;
+import com.fetters.picture.model.vo.UserVO;
+import com.fetters.picture.service.UserService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 用户封装类多级缓存（本地 Caffeine + Redis），用于图片、空间、空间成员等封装类关联查询用户信息
+ * <p>
+ * 批量查询时本地缓存未命中的 id 通过一次 MGET 查询 Redis，仍未命中的再通过一次 listByIds 查询数据库，
+ * 并以 pipeline 批量回写 Redis。用户不存在时缓存空值，避免反复查询数据库。
+ * <p>
+ * 用户修改、删除后删除缓存，并通过 Redis 频道广播给其他节点清理本地缓存。
+ * 已经序列化进图片分页、图片详情缓存中的用户信息不会随之更新，最长在其 TTL 后刷新。
+ */
+@Component
+public class UserVOCacheManager {
+
+    /**
+     * 缓存 key 前缀
+     */
+    private static final String CACHE_KEY_PREFIX = "user:getUserVO:";
+
+    /**
+     * 缓存失效广播频道（消息内容为用户 id）
+     */
+    public static final String INVALIDATE_CHANNEL = "user:vo:invalidate";
+
+    /**
+     * Redis 中的空值
+     */
+    private static final String NULL_VALUE = "";
+
+    /**
+     * 空值缓存时间（秒）
+     */
+    private static final long NULL_EXPIRE_SECONDS = 60L;
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private UserService userService;
+
+    /**
+     * 本地缓存，Optional.empty() 表示用户不存在
+     */
+    private final Cache<Long, Optional<UserVO>> LOCAL_CACHE =
+            Caffeine.newBuilder().initialCapacity(1024)
+                    .maximumSize(10000L)
+                    // 本地缓存时间较短，兜底广播丢失的情况
+                    .expireAfterWrite(1L, TimeUnit.MINUTES)
+                    .recordStats()
+                    .build();
+
+    /**
+     * 获取用户封装类
+     * @param userId 用户 id
+     * @return 用户封装类，不存在时返回 null
+     */
+    public UserVO get(Long userId) {
+        if (userId == null || userId <= 0) {
+            return null;
+        }
+        return getAll(Collections.singleton(userId)).get(userId);
+    }
+
+    /**
+     * 批量获取用户封装类
+     * @param userIds 用户 id 集合
+     * @return 用户 id => 用户封装类，不包含不存在的用户
+     */
+    public Map<Long, UserVO> getAll(Collection<Long> userIds) {
+        if (CollUtil.isEmpty(userIds)) {
+            return new HashMap<>();
+        }
+        Set<Long> userIdSet = userIds.stream()
+                .filter(userId -> userId != null && userId > 0)
+                .collect(Collectors.toSet());
+        Map<Long, UserVO> userVOMap = new HashMap<>();
+        LOCAL_CACHE.getAll(userIdSet, this::loadAll)
+                .forEach((userId, userVO) -> userVO.ifPresent(value -> userVOMap.put(userId, value)));
+        return userVOMap;
+    }
+
+    /**
+     * 获取本节点的缓存统计
+     * @return 缓存区域统计
+     */
+    public CacheRegionStats getStats() {
+        return CacheRegionStats.of("userVO", LOCAL_CACHE);
+    }
+
+    /**
+     * 删除用户缓存，并广播给其他节点
+     * @param userId 用户 id
+     */
+    public void invalidate(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        stringRedisTemplate.delete(CACHE_KEY_PREFIX + userId);
+        evictLocal(userId);
+        stringRedisTemplate.convertAndSend(INVALIDATE_CHANNEL, String.valueOf(userId));
+    }
+
+    /**
+     * 清理本节点的本地缓存（收到失效广播时调用）
+     * @param userId 用户 id
+     */
+    public void evictLocal(Long userId) {
+        LOCAL_CACHE.invalidate(userId);
+    }
+
+    /**
+     * 本地缓存未命中的 id：先 MGET 查询 Redis，剩余的查询数据库并回写 Redis
+     */
+    private Map<Long, Optional<UserVO>> loadAll(Set<? extends Long> userIds) {
+        List<Long> userIdList = new ArrayList<>(userIds);
+        List<String> cacheKeyList = userIdList.stream().map(userId -> CACHE_KEY_PREFIX + userId).collect(Collectors.toList());
+        List<String> cachedValueList = stringRedisTemplate.opsForValue().multiGet(cacheKeyList);
+        Map<Long, Optional<UserVO>> result = new HashMap<>();
+        List<Long> missUserIdList = new ArrayList<>();
+        for (int i = 0; i < userIdList.size(); i++) {
+            String cachedValue = cachedValueList == null ? null : cachedValueList.get(i);
+            if (cachedValue == null) {
+                missUserIdList.add(userIdList.get(i));
+            } else if (NULL_VALUE.equals(cachedValue)) {
+                result.put(userIdList.get(i), Optional.empty());
+            } else {
+                result.put(userIdList.get(i), Optional.of(JSONUtil.toBean(cachedValue, UserVO.class)));
+            }
+        }
+        if (missUserIdList.isEmpty()) {
+            return result;
+        }
+        // 查询数据库
+        Map<Long, UserVO> dbUserVOMap = userService.listByIds(missUserIdList).stream()
+                .collect(Collectors.toMap(User::getId, userService::getUserVO, (a, b) -> a));
+        Map<String, String> cacheValueMap = new HashMap<>();
+        for (Long userId : missUserIdList) {
+            UserVO userVO = dbUserVOMap.get(userId);
+            result.put(userId, Optional.ofNullable(userVO));
+            cacheValueMap.put(CACHE_KEY_PREFIX + userId, userVO == null ? NULL_VALUE : JSONUtil.toJsonStr(userVO));
+        }
+        putAll(cacheValueMap);
+        return result;
+    }
+
+    /**
+     * 通过 pipeline 批量写入 Redis，过期时间随机，防止缓存雪崩
+     */
+    private void putAll(Map<String, String> cacheValueMap) {
+        stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                cacheValueMap.forEach((cacheKey, cacheValue) -> {
+                    long expireTime = NULL_VALUE.equals(cacheValue)
+                            ? NULL_EXPIRE_SECONDS : 300 + RandomUtil.randomInt(0, 300);
+                    operations.opsForValue().set(cacheKey, cacheValue, expireTime, TimeUnit.SECONDS);
+                });
+                return null;
+            }
+        });
+    }
+}
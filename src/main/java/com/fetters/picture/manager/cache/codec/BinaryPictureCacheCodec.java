@@ -0,0 +1,312 @@
+package com.fetters.picture.manager.cache.codec;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.fetters.picture.model.vo.PictureVO;
+import com.fetters.picture.model.vo.UserVO;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 紧凑二进制编解码器
+ * <p>
+ * 格式：版本号 + 分页信息 + 记录数 + 逐条记录。字段按固定顺序写入，不写字段名；
+ * 整数使用变长编码，字符串为 长度 + UTF-8 字节，可空字段使用 1 字节标记是否为空。
+ */
+@Component
+@ConditionalOnProperty(prefix = "picture.cache", name = "codec", havingValue = "binary")
+public class BinaryPictureCacheCodec implements PictureCacheCodec {
+
+    /**
+     * 格式版本号，字段变化时递增
+     */
+    private static final byte VERSION = 1;
+
+    @Override
+    public String getFormat() {
+        return "bin" + VERSION;
+    }
+
+    @Override
+    public byte[] encode(Page<PictureVO> picturePage) {
+        List<PictureVO> records = picturePage.getRecords();
+        ByteWriter writer = new ByteWriter(256 + records.size() * 512);
+        writer.writeByte(VERSION);
+        writer.writeVarLong(picturePage.getCurrent());
+        writer.writeVarLong(picturePage.getSize());
+        writer.writeVarLong(picturePage.getTotal());
+        writer.writeVarLong(records.size());
+        for (PictureVO pictureVO : records) {
+            writePictureVO(writer, pictureVO);
+        }
+        return writer.toByteArray();
+    }
+
+    @Override
+    public Page<PictureVO> decode(byte[] data) {
+        ByteReader reader = new ByteReader(data);
+        byte version = reader.readByte();
+        if (version != VERSION) {
+            throw new IllegalStateException("不支持的缓存格式版本：" + version);
+        }
+        long current = reader.readVarLong();
+        long size = reader.readVarLong();
+        long total = reader.readVarLong();
+        int recordCount = (int) reader.readVarLong();
+        List<PictureVO> records = new ArrayList<>(recordCount);
+        for (int i = 0; i < recordCount; i++) {
+            records.add(readPictureVO(reader));
+        }
+        Page<PictureVO> picturePage = new Page<>(current, size, total);
+        picturePage.setRecords(records);
+        return picturePage;
+    }
+
+    private void writePictureVO(ByteWriter writer, PictureVO pictureVO) {
+        writer.writeNullableLong(pictureVO.getId());
+        writer.writeNullableLong(pictureVO.getSpaceId());
+        writer.writeString(pictureVO.getUrl());
+        writer.writeString(pictureVO.getThumbnailUrl());
+        writer.writeString(pictureVO.getDownloadUrl());
+        writer.writeString(pictureVO.getName());
+        writer.writeString(pictureVO.getIntroduction());
+        writer.writeStringList(pictureVO.getTags());
+        writer.writeString(pictureVO.getCategory());
+        writer.writeNullableLong(pictureVO.getPicSize());
+        writer.writeNullableLong(pictureVO.getPicWidth() == null ? null : pictureVO.getPicWidth().longValue());
+        writer.writeNullableLong(pictureVO.getPicHeight() == null ? null : pictureVO.getPicHeight().longValue());
+        writer.writeNullableDouble(pictureVO.getPicScale());
+        writer.writeString(pictureVO.getPicFormat());
+        writer.writeString(pictureVO.getPicColor());
+        writer.writeNullableLong(pictureVO.getUserId());
+        writer.writeDate(pictureVO.getCreateTime());
+        writer.writeDate(pictureVO.getEditTime());
+        writer.writeDate(pictureVO.getUpdateTime());
+        UserVO userVO = pictureVO.getUser();
+        writer.writeBoolean(userVO != null);
+        if (userVO != null) {
+            writer.writeNullableLong(userVO.getId());
+            writer.writeString(userVO.getUserAccount());
+            writer.writeString(userVO.getUserName());
+            writer.writeString(userVO.getUserAvatar());
+            writer.writeString(userVO.getUserProfile());
+            writer.writeString(userVO.getUserRole());
+            writer.writeDate(userVO.getCreateTime());
+        }
+    }
+
+    private PictureVO readPictureVO(ByteReader reader) {
+        PictureVO pictureVO = new PictureVO();
+        pictureVO.setId(reader.readNullableLong());
+        pictureVO.setSpaceId(reader.readNullableLong());
+        pictureVO.setUrl(reader.readString());
+        pictureVO.setThumbnailUrl(reader.readString());
+        pictureVO.setDownloadUrl(reader.readString());
+        pictureVO.setName(reader.readString());
+        pictureVO.setIntroduction(reader.readString());
+        pictureVO.setTags(reader.readStringList());
+        pictureVO.setCategory(reader.readString());
+        pictureVO.setPicSize(reader.readNullableLong());
+        Long picWidth = reader.readNullableLong();
+        pictureVO.setPicWidth(picWidth == null ? null : picWidth.intValue());
+        Long picHeight = reader.readNullableLong();
+        pictureVO.setPicHeight(picHeight == null ? null : picHeight.intValue());
+        pictureVO.setPicScale(reader.readNullableDouble());
+        pictureVO.setPicFormat(reader.readString());
+        pictureVO.setPicColor(reader.readString());
+        pictureVO.setUserId(reader.readNullableLong());
+        pictureVO.setCreateTime(reader.readDate());
+        pictureVO.setEditTime(reader.readDate());
+        pictureVO.setUpdateTime(reader.readDate());
+        if (reader.readBoolean()) {
+            UserVO userVO = new UserVO();
+            userVO.setId(reader.readNullableLong());
+            userVO.setUserAccount(reader.readString());
+            userVO.setUserName(reader.readString());
+            userVO.setUserAvatar(reader.readString());
+            userVO.setUserProfile(reader.readString());
+            userVO.setUserRole(reader.readString());
+            userVO.setCreateTime(reader.readDate());
+            pictureVO.setUser(userVO);
+        }
+        return pictureVO;
+    }
+
+    /**
+     * 可扩容的字节写入器
+     */
+    private static class ByteWriter {
+
+        private byte[] buffer;
+
+        private int position;
+
+        ByteWriter(int initialCapacity) {
+            this.buffer = new byte[initialCapacity];
+        }
+
+        void writeByte(int value) {
+            ensureCapacity(1);
+            buffer[position++] = (byte) value;
+        }
+
+        void writeBoolean(boolean value) {
+            writeByte(value ? 1 : 0);
+        }
+
+        /**
+         * 变长编码（ZigZag + 每字节 7 位）
+         */
+        void writeVarLong(long value) {
+            long zigzag = (value << 1) ^ (value >> 63);
+            ensureCapacity(10);
+            while ((zigzag & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((zigzag & 0x7F) | 0x80);
+                zigzag >>>= 7;
+            }
+            buffer[position++] = (byte) zigzag;
+        }
+
+        void writeNullableLong(Long value) {
+            writeBoolean(value != null);
+            if (value != null) {
+                writeVarLong(value);
+            }
+        }
+
+        void writeNullableDouble(Double value) {
+            writeBoolean(value != null);
+            if (value != null) {
+                long bits = Double.doubleToLongBits(value);
+                ensureCapacity(8);
+                for (int i = 56; i >= 0; i -= 8) {
+                    buffer[position++] = (byte) (bits >>> i);
+                }
+            }
+        }
+
+        void writeDate(Date value) {
+            writeNullableLong(value == null ? null : value.getTime());
+        }
+
+        /**
+         * 字符串：长度 + 1（0 表示 null）+ UTF-8 字节
+         */
+        void writeString(String value) {
+            if (value == null) {
+                writeVarLong(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length + 1L);
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        /**
+         * 字符串列表：元素个数 + 1（0 表示 null）+ 逐个字符串
+         */
+        void writeStringList(List<String> value) {
+            if (value == null) {
+                writeVarLong(0);
+                return;
+            }
+            writeVarLong(value.size() + 1L);
+            for (String item : value) {
+                writeString(item);
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+
+        private void ensureCapacity(int length) {
+            if (position + length > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length << 1, position + length));
+            }
+        }
+    }
+
+    /**
+     * 字节读取器
+     */
+    private static class ByteReader {
+
+        private final byte[] buffer;
+
+        private int position;
+
+        ByteReader(byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        byte readByte() {
+            return buffer[position++];
+        }
+
+        boolean readBoolean() {
+            return readByte() != 0;
+        }
+
+        long readVarLong() {
+            long zigzag = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer[position++];
+                zigzag |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return (zigzag >>> 1) ^ -(zigzag & 1);
+        }
+
+        Long readNullableLong() {
+            return readBoolean() ? readVarLong() : null;
+        }
+
+        Double readNullableDouble() {
+            if (!readBoolean()) {
+                return null;
+            }
+            long bits = 0;
+            for (int i = 0; i < 8; i++) {
+                bits = (bits << 8) | (buffer[position++] & 0xFF);
+            }
+            return Double.longBitsToDouble(bits);
+        }
+
+        Date readDate() {
+            Long time = readNullableLong();
+            return time == null ? null : new Date(time);
+        }
+
+        String readString() {
+            int length = (int) readVarLong() - 1;
+            if (length < 0) {
+                return null;
+            }
+            String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        List<String> readStringList() {
+            int size = (int) readVarLong() - 1;
+            if (size < 0) {
+                return null;
+            }
+            List<String> value = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                value.add(readString());
+            }
+            return value;
+        }
+    }
+}
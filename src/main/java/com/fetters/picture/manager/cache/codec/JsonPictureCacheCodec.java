@@ -0,0 +1,36 @@
+package com.fetters.picture.manager.cache.codec;
+
+import cn.hutool.core.lang.TypeReference;
+import cn.hutool.json.JSONUtil;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.fetters.picture.model.vo.PictureVO;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * JSON 编解码器（兼容原有缓存格式）
+ */
+@Component
+@ConditionalOnProperty(prefix = "picture.cache", name = "codec", havingValue = "json")
+public class JsonPictureCacheCodec implements PictureCacheCodec {
+
+    @Override
+    public String getFormat() {
+        return "json";
+    }
+
+    @Override
+    public byte[] encode(Page<PictureVO> picturePage) {
+        return JSONUtil.toJsonStr(picturePage).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public Page<PictureVO> decode(byte[] data) {
+        String json = new String(data, StandardCharsets.UTF_8);
+        // 指定泛型类型，保证记录被解析为 PictureVO 而不是 JSONObject
+        return JSONUtil.toBean(json, new TypeReference<Page<PictureVO>>() {
+        }, false);
+    }
+}
@@ -0,0 +1,40 @@
+package com.fetters.picture.manager.cache.codec;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.fetters.picture.model.vo.PictureVO;
+
+/**
+ * 图片分页缓存编解码器
+ * <p>
+ * 通过配置 picture.cache.codec 选择实现：response（默认，接口响应体）、binary（紧凑二进制）或 json（hutool JSON）
+ */
+public interface PictureCacheCodec {
+
+    /**
+     * 编码格式标识，会拼接到缓存 key 中，保证不同格式的缓存互不干扰
+     * @return 格式标识
+     */
+    String getFormat();
+
+    /**
+     * 编码图片分页
+     * @param picturePage 图片封装分页
+     * @return 缓存字节
+     */
+    byte[] encode(Page<PictureVO> picturePage);
+
+    /**
+     * 解码图片分页
+     * @param data 缓存字节
+     * @return 图片封装分页（记录为 PictureVO 类型）
+     */
+    Page<PictureVO> decode(byte[] data);
+
+    /**
+     * 缓存字节是否就是接口响应体（BaseResponse JSON），是则命中时可直接写回客户端
+     * @return 是否为响应体
+     */
+    default boolean isResponseBody() {
+        return false;
+    }
+}
@@ -0,0 +1,59 @@
+package com.fetters.picture.manager.cache.codec;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fetters.picture.common.ResultUtils;
+import com.fetters.picture.model.vo.PictureVO;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * 响应体编解码器：缓存字节即为接口最终返回的 BaseResponse JSON，命中时可直接写回客户端
+ * <p>
+ * 使用 Spring MVC 同一个 ObjectMapper（见 JsonConfig），保证与正常接口返回的格式一致
+ */
+@Component
+@ConditionalOnProperty(prefix = "picture.cache", name = "codec", havingValue = "response", matchIfMissing = true)
+public class ResponseBodyPictureCacheCodec implements PictureCacheCodec {
+
+    private static final TypeReference<Page<PictureVO>> PAGE_TYPE = new TypeReference<Page<PictureVO>>() {
+    };
+
+    @Resource
+    private ObjectMapper objectMapper;
+
+    @Override
+    public String getFormat() {
+        return "resp";
+    }
+
+    @Override
+    public byte[] encode(Page<PictureVO> picturePage) {
+        try {
+            return objectMapper.writeValueAsBytes(ResultUtils.success(picturePage));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public Page<PictureVO> decode(byte[] data) {
+        try {
+            JsonNode dataNode = objectMapper.readTree(data).get("data");
+            return objectMapper.convertValue(dataNode, PAGE_TYPE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public boolean isResponseBody() {
+        return true;
+    }
+}
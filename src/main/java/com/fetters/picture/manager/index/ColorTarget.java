@@ -0,0 +1,74 @@
+package com.fetters.picture.manager.index;
+
+import com.fetters.picture.utils.ColorSimilarUtils;
+
+/**
+ * 颜色搜索目标：目标颜色的 Lab 值，以及到 Lab 长方体的 CIEDE2000 色差下界
+ */
+class ColorTarget {
+
+    /**
+     * 旋转项 RT = -sin(2Δθ)·RC 中 |sin(2Δθ)| 的上界，Δθ 不超过 30 度
+     */
+    private static final double MAX_ROTATION_SIN = Math.sin(Math.toRadians(60));
+
+    private final double l;
+
+    private final double a;
+
+    private final double b;
+
+    /**
+     * 彩度 C' 的上界（a' = a·(1 + G)，G ≤ 0.5）
+     */
+    private final double maxChroma;
+
+    ColorTarget(int rgb) {
+        double[] lab = ColorSimilarUtils.rgbToLab(rgb);
+        this.l = lab[0];
+        this.a = lab[1];
+        this.b = lab[2];
+        this.maxChroma = Math.sqrt(2.25 * a * a + b * b);
+    }
+
+    double deltaE(double l2, double a2, double b2) {
+        return ColorSimilarUtils.deltaE2000(l, a, b, l2, a2, b2);
+    }
+
+    /**
+     * 目标颜色到 Lab 长方体内任意颜色的 ΔE00 下界
+     * <p>
+     * ΔE00² = x² + y² + z² + RT·y·z，x = ΔL'/SL，y = ΔC'/SC，z = ΔH'/SH。由 |y·z| ≤ (y² + z²) / 2 得
+     * ΔE00² ≥ x² + (1 - |RT| / 2)·(y² + z²)；SH ≤ SC，且 ΔC'² + ΔH'² 为 (a', b) 平面上的距离平方，不小于 (a, b) 平面上的距离平方，
+     * 因此 y² + z² ≥ Δab² / SC²。SL、SC、|RT| 分别取长方体范围内的最大值。
+     */
+    double lowerBound(double lMin, double lMax, double aMin, double aMax, double bMin, double bMax) {
+        double deltaL = distanceToRange(l, lMin, lMax);
+        double deltaA = distanceToRange(a, aMin, aMax);
+        double deltaB = distanceToRange(b, bMin, bMax);
+        // SL 随 |L̄ - 50| 增大，最大值在区间端点
+        double maxSl = Math.max(ColorSimilarUtils.lightnessWeight((l + lMin) / 2),
+                ColorSimilarUtils.lightnessWeight((l + lMax) / 2));
+        double cellMaxA = 1.5 * Math.max(Math.abs(aMin), Math.abs(aMax));
+        double cellMaxB = Math.max(Math.abs(bMin), Math.abs(bMax));
+        double cellMaxChroma = Math.sqrt(cellMaxA * cellMaxA + cellMaxB * cellMaxB);
+        double maxChromaMean = (maxChroma + cellMaxChroma) / 2;
+        double maxSc = 1 + 0.045 * maxChromaMean;
+        double chromaMean7 = ColorSimilarUtils.pow7(maxChromaMean);
+        double maxRc = 2 * Math.sqrt(chromaMean7 / (chromaMean7 + ColorSimilarUtils.POW25_7));
+        double chromaFactor = 1 - maxRc * MAX_ROTATION_SIN / 2;
+        double x = deltaL / maxSl;
+        return Math.sqrt(x * x + chromaFactor * (deltaA * deltaA + deltaB * deltaB) / (maxSc * maxSc));
+    }
+
+    /**
+     * 目标颜色到单个 Lab 颜色的 ΔE00 下界，比精确计算便宜，用于扫描时预先过滤
+     */
+    double lowerBound(double l2, double a2, double b2) {
+        return lowerBound(l2, l2, a2, a2, b2, b2);
+    }
+
+    private static double distanceToRange(double value, double min, double max) {
+        return value < min ? min - value : (value > max ? value - max : 0);
+    }
+}
@@ -0,0 +1,198 @@
+package com.fetters.picture.manager.index;
+
+import com.fetters.picture.utils.ColorSimilarUtils;
+
+import java.util.*;
+
+/**
+ * Lab 颜色网格：按 Lab 坐标将颜色划分为边长 {@link #CELL_SIZE} 的网格，每个网格以平行的原始类型数组保存
+ * 条目 id（int[]）、图片 id（long[]）和 Lab（float[]），只保存非空网格
+ * <p>
+ * 搜索时先用 {@link ColorTarget#lowerBound} 计算目标颜色到各网格的色差下界，按下界从小到大扫描，
+ * 下界超过当前所需的色差时即可停止，远处的网格不会被扫描。
+ * <p>
+ * 删除时将网格内最后一个条目移到被删除的位置，数组始终连续。非线程安全，由 {@link PictureIndexManager} 加锁访问。
+ */
+class LabGrid {
+
+    /**
+     * 网格边长（Lab 单位）
+     */
+    static final double CELL_SIZE = 8;
+
+    /**
+     * 网格 key => 网格
+     */
+    private final Map<Integer, Cell> cellMap = new HashMap<>();
+
+    /**
+     * 条目 id => 所在的网格，删除时使用
+     */
+    private final Map<Integer, Cell> entryCellMap = new HashMap<>();
+
+    /**
+     * 添加颜色
+     * @param entryId   条目 id，网格内唯一
+     * @param pictureId 图片 id
+     * @param rgb       颜色（0xRRGGBB）
+     */
+    void add(int entryId, long pictureId, int rgb) {
+        double[] lab = ColorSimilarUtils.rgbToLab(rgb);
+        // 网格内以 float 保存，按保存后的值划分网格，保证下界计算与实际数据一致
+        float l = (float) lab[0];
+        float a = (float) lab[1];
+        float b = (float) lab[2];
+        Cell cell = cellMap.computeIfAbsent(cellKey(l, a, b), Cell::new);
+        cell.add(entryId, pictureId, l, a, b);
+        entryCellMap.put(entryId, cell);
+    }
+
+    /**
+     * 删除颜色
+     * @param entryId 条目 id
+     */
+    void remove(int entryId) {
+        Cell cell = entryCellMap.remove(entryId);
+        if (cell == null) {
+            return;
+        }
+        cell.remove(entryId);
+        if (cell.size == 0) {
+            cellMap.remove(cell.key);
+        }
+    }
+
+    boolean isEmpty() {
+        return cellMap.isEmpty();
+    }
+
+    /**
+     * 收集色差下界不超过阈值的网格
+     * @param target    目标颜色
+     * @param maxDeltaE 色差阈值
+     * @param result    网格及其下界
+     */
+    void collectCells(ColorTarget target, double maxDeltaE, List<CellBound> result) {
+        for (Cell cell : cellMap.values()) {
+            double lowerBound = target.lowerBound(cell.lMin, cell.lMin + CELL_SIZE,
+                    cell.aMin, cell.aMin + CELL_SIZE, cell.bMin, cell.bMin + CELL_SIZE);
+            if (lowerBound <= maxDeltaE) {
+                result.add(new CellBound(cell, lowerBound));
+            }
+        }
+    }
+
+    /**
+     * 网格 key：L、a、b 各占 8 位（sRGB 的 L 在 [0, 100]，a、b 在 [-128, 128) 内）
+     */
+    private static int cellKey(float l, float a, float b) {
+        int li = (int) Math.floor(l / CELL_SIZE);
+        int ai = (int) Math.floor((a + 128) / CELL_SIZE);
+        int bi = (int) Math.floor((b + 128) / CELL_SIZE);
+        return li << 16 | ai << 8 | bi;
+    }
+
+    /**
+     * 网格及其下界（单次搜索内使用）
+     */
+    static class CellBound {
+
+        final Cell cell;
+
+        final double lowerBound;
+
+        CellBound(Cell cell, double lowerBound) {
+            this.cell = cell;
+            this.lowerBound = lowerBound;
+        }
+    }
+
+    /**
+     * 一个网格内的颜色
+     */
+    static class Cell {
+
+        private final int key;
+
+        private final double lMin;
+
+        private final double aMin;
+
+        private final double bMin;
+
+        private int[] entryIds = new int[4];
+
+        private long[] pictureIds = new long[4];
+
+        /**
+         * 每个条目依次保存 L、a、b
+         */
+        private float[] labs = new float[12];
+
+        private int size;
+
+        /**
+         * 条目 id => 数组下标
+         */
+        private final Map<Integer, Integer> positionMap = new HashMap<>();
+
+        Cell(int key) {
+            this.key = key;
+            this.lMin = (key >>> 16) * CELL_SIZE;
+            this.aMin = ((key >>> 8) & 0xFF) * CELL_SIZE - 128;
+            this.bMin = (key & 0xFF) * CELL_SIZE - 128;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int entryId(int index) {
+            return entryIds[index];
+        }
+
+        long pictureId(int index) {
+            return pictureIds[index];
+        }
+
+        float l(int index) {
+            return labs[index * 3];
+        }
+
+        float a(int index) {
+            return labs[index * 3 + 1];
+        }
+
+        float b(int index) {
+            return labs[index * 3 + 2];
+        }
+
+        private void add(int entryId, long pictureId, float l, float a, float b) {
+            if (size == entryIds.length) {
+                entryIds = Arrays.copyOf(entryIds, size * 2);
+                pictureIds = Arrays.copyOf(pictureIds, size * 2);
+                labs = Arrays.copyOf(labs, size * 6);
+            }
+            entryIds[size] = entryId;
+            pictureIds[size] = pictureId;
+            labs[size * 3] = l;
+            labs[size * 3 + 1] = a;
+            labs[size * 3 + 2] = b;
+            positionMap.put(entryId, size++);
+        }
+
+        private void remove(int entryId) {
+            Integer position = positionMap.remove(entryId);
+            if (position == null) {
+                return;
+            }
+            int last = --size;
+            if (position != last) {
+                entryIds[position] = entryIds[last];
+                pictureIds[position] = pictureIds[last];
+                System.arraycopy(labs, last * 3, labs, position * 3, 3);
+                positionMap.put(entryIds[position], position);
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.fetters.picture.manager.index;
+
+import com.fetters.picture.model.entity.Picture;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * 图片主色调索引
+ * <p>
+ * 主色调在入索引时转换为 CIELAB，按空间分段（公共图库为一段，只包含审核通过的图片），每段一个 {@link LabGrid}。
+ * 相似度为 CIEDE2000 色差（ΔE00）。
+ * <p>
+ * 搜索时先计算目标颜色到每个非空网格的 ΔE00 下界，按下界从小到大扫描网格，下界超过当前第 K 个结果（或色差阈值）时停止，
+ * 远处的网格不会被扫描，结果与全量计算一致。ΔE00 不是 Lab 空间中的欧氏距离，下界由公式中各权重的上界推出，见 {@link ColorTarget#lowerBound}。
+ */
+@Component
+public class PictureColorIndex implements PictureIndex {
+
+    /**
+     * 空间 => 网格
+     */
+    private final SpaceSegmentMap<LabGrid> segmentMap = new SpaceSegmentMap<>(LabGrid::new, LabGrid::isEmpty);
+
+    @Override
+    public void add(int docId, Picture picture) {
+        if (!PictureIndex.isSearchable(picture)) {
+            return;
+        }
+        int rgb = parseColor(picture.getPicColor());
+        if (rgb < 0) {
+            return;
+        }
+        segmentMap.getForAdd(docId, picture.getSpaceId()).add(docId, picture.getId(), rgb);
+    }
+
+    @Override
+    public void remove(int docId) {
+        segmentMap.remove(docId, grid -> grid.remove(docId));
+    }
+
+    @Override
+    public void clear() {
+        segmentMap.clear();
+    }
+
+    /**
+     * 搜索与目标颜色最相似的图片（K 近邻，可限定色差阈值）
+     * @param spaceId   空间 id，为空时搜索公共图库
+     * @param rgb       目标颜色（0xRRGGBB）
+     * @param k         最多返回数量
+     * @param maxDeltaE 色差阈值，只返回 ΔE00 不超过该值的图片；不限制时传 Double.POSITIVE_INFINITY
+     * @return 图片 id，按色差从小到大排序
+     */
+    public long[] search(Long spaceId, int rgb, int k, double maxDeltaE) {
+        LabGrid grid = segmentMap.get(spaceId);
+        if (grid == null) {
+            return new long[0];
+        }
+        ColorTarget target = new ColorTarget(rgb);
+        List<LabGrid.CellBound> cellBoundList = new ArrayList<>();
+        grid.collectCells(target, maxDeltaE, cellBoundList);
+        cellBoundList.sort(Comparator.comparingDouble(cellBound -> cellBound.lowerBound));
+        TopK topK = new TopK(k);
+        for (LabGrid.CellBound cellBound : cellBoundList) {
+            if (cellBound.lowerBound > topK.threshold()) {
+                break;
+            }
+            LabGrid.Cell cell = cellBound.cell;
+            for (int i = 0; i < cell.size(); i++) {
+                // 先用单点下界过滤，再计算精确色差
+                double limit = Math.min(maxDeltaE, topK.threshold());
+                if (target.lowerBound(cell.l(i), cell.a(i), cell.b(i)) > limit) {
+                    continue;
+                }
+                double deltaE = target.deltaE(cell.l(i), cell.a(i), cell.b(i));
+                if (deltaE <= limit) {
+                    topK.offer(cell.pictureId(i), deltaE);
+                }
+            }
+        }
+        return topK.toSortedIds();
+    }
+
+    /**
+     * 解析颜色，支持 0xRRGGBB、#RRGGBB（数据万象返回的主色调可能省略前导零，如 0x8060）
+     * @param color 颜色
+     * @return 打包后的 RGB，无法解析时返回 -1
+     */
+    public static int parseColor(String color) {
+        if (color == null || color.trim().isEmpty()) {
+            return -1;
+        }
+        try {
+            int rgb = Integer.decode(color.trim());
+            return rgb >= 0 && rgb <= 0xFFFFFF ? rgb : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
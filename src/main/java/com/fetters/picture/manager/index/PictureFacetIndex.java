@@ -0,0 +1,273 @@
+package com.fetters.picture.manager.index;
+
+import cn.hutool.core.util.StrUtil;
+import com.fetters.picture.model.dto.picture.PictureQueryRequest;
+import com.fetters.picture.model.entity.Picture;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * 图片结构化筛选索引（分面索引）
+ * <p>
+ * 低基数列（分类、格式、审核状态、是否公共图库）每个取值一个位图（BitSet），组合筛选即位图与运算，分面统计即与后计数；
+ * 高基数列（空间、用户、宽、高）每个取值一个倒排表，避免大量稀疏位图占用内存，参与筛选时再转为位图。
+ */
+@Component
+public class PictureFacetIndex implements PictureIndex {
+
+    private final Map<String, BitSet> categoryMap = new HashMap<>();
+
+    private final Map<String, BitSet> formatMap = new HashMap<>();
+
+    private final Map<Integer, BitSet> reviewStatusMap = new HashMap<>();
+
+    /**
+     * 公共图库（spaceId 为空）的图片
+     */
+    private final BitSet publicBits = new BitSet();
+
+    /**
+     * 全部图片
+     */
+    private final BitSet allBits = new BitSet();
+
+    private final Map<Long, PostingList> spaceMap = new HashMap<>();
+
+    private final Map<Long, PostingList> userMap = new HashMap<>();
+
+    private final Map<Integer, PostingList> widthMap = new HashMap<>();
+
+    private final Map<Integer, PostingList> heightMap = new HashMap<>();
+
+    /**
+     * 文档 id => 索引的取值，删除时使用
+     */
+    private final Map<Integer, FacetDoc> docMap = new HashMap<>();
+
+    @Override
+    public void add(int docId, Picture picture) {
+        FacetDoc doc = new FacetDoc(picture);
+        docMap.put(docId, doc);
+        allBits.set(docId);
+        setBit(categoryMap, doc.category, docId);
+        setBit(formatMap, doc.picFormat, docId);
+        setBit(reviewStatusMap, doc.reviewStatus, docId);
+        if (doc.spaceId == null) {
+            publicBits.set(docId);
+        }
+        addPosting(spaceMap, doc.spaceId, docId);
+        addPosting(userMap, doc.userId, docId);
+        addPosting(widthMap, doc.picWidth, docId);
+        addPosting(heightMap, doc.picHeight, docId);
+    }
+
+    @Override
+    public void remove(int docId) {
+        FacetDoc doc = docMap.remove(docId);
+        if (doc == null) {
+            return;
+        }
+        allBits.clear(docId);
+        publicBits.clear(docId);
+        clearBit(categoryMap, doc.category, docId);
+        clearBit(formatMap, doc.picFormat, docId);
+        clearBit(reviewStatusMap, doc.reviewStatus, docId);
+        removePosting(spaceMap, doc.spaceId, docId);
+        removePosting(userMap, doc.userId, docId);
+        removePosting(widthMap, doc.picWidth, docId);
+        removePosting(heightMap, doc.picHeight, docId);
+    }
+
+    @Override
+    public void clear() {
+        categoryMap.clear();
+        formatMap.clear();
+        reviewStatusMap.clear();
+        publicBits.clear();
+        allBits.clear();
+        spaceMap.clear();
+        userMap.clear();
+        widthMap.clear();
+        heightMap.clear();
+        docMap.clear();
+    }
+
+    /**
+     * 按查询请求中的结构化条件筛选
+     * @param pictureQueryRequest 图片查询请求
+     * @return 符合条件的文档 id 位图（新对象，可修改）；没有可走索引的条件时返回 null
+     */
+    public BitSet filter(PictureQueryRequest pictureQueryRequest) {
+        BitSet result = null;
+        String category = normalizeCategory(pictureQueryRequest.getCategory());
+        if (category != null) {
+            result = and(result, categoryMap.get(category));
+        }
+        if (pictureQueryRequest.getReviewStatus() != null) {
+            result = and(result, reviewStatusMap.get(pictureQueryRequest.getReviewStatus()));
+        }
+        if (pictureQueryRequest.isNullSpaceId()) {
+            result = and(result, publicBits);
+        }
+        result = andPosting(result, spaceMap, pictureQueryRequest.getSpaceId());
+        result = andPosting(result, userMap, pictureQueryRequest.getUserId());
+        result = andPosting(result, widthMap, pictureQueryRequest.getPicWidth());
+        result = andPosting(result, heightMap, pictureQueryRequest.getPicHeight());
+        return result;
+    }
+
+    /**
+     * 全部图片
+     * @return 文档 id 位图（新对象，可修改）
+     */
+    public BitSet all() {
+        return (BitSet) allBits.clone();
+    }
+
+    /**
+     * 统计各分类的图片数
+     */
+    public Map<String, Long> countCategories(BitSet docBits) {
+        return count(categoryMap, docBits);
+    }
+
+    /**
+     * 统计各格式的图片数
+     */
+    public Map<String, Long> countFormats(BitSet docBits) {
+        return count(formatMap, docBits);
+    }
+
+    /**
+     * 倒排表转位图
+     */
+    static BitSet toBitSet(PostingList postingList) {
+        BitSet bitSet = new BitSet();
+        for (int i = 0; i < postingList.size(); i++) {
+            bitSet.set(postingList.get(i));
+        }
+        return bitSet;
+    }
+
+    /**
+     * 各取值与位图相与后计数，按数量降序
+     */
+    private static <K> Map<String, Long> count(Map<K, BitSet> bitsMap, BitSet docBits) {
+        List<Map.Entry<String, Long>> countList = new ArrayList<>();
+        bitsMap.forEach((value, bits) -> {
+            BitSet intersection = (BitSet) bits.clone();
+            intersection.and(docBits);
+            int count = intersection.cardinality();
+            if (count > 0) {
+                countList.add(new AbstractMap.SimpleEntry<>(String.valueOf(value), (long) count));
+            }
+        });
+        countList.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        Map<String, Long> result = new LinkedHashMap<>();
+        countList.forEach(entry -> result.put(entry.getKey(), entry.getValue()));
+        return result;
+    }
+
+    private static BitSet and(BitSet result, BitSet bits) {
+        if (bits == null) {
+            return new BitSet();
+        }
+        if (result == null) {
+            return (BitSet) bits.clone();
+        }
+        result.and(bits);
+        return result;
+    }
+
+    private static <K> BitSet andPosting(BitSet result, Map<K, PostingList> postingMap, K value) {
+        if (value == null) {
+            return result;
+        }
+        PostingList postingList = postingMap.get(value);
+        return and(result, postingList == null ? new BitSet() : toBitSet(postingList));
+    }
+
+    private static <K> void setBit(Map<K, BitSet> bitsMap, K value, int docId) {
+        if (value != null) {
+            bitsMap.computeIfAbsent(value, key -> new BitSet()).set(docId);
+        }
+    }
+
+    private static <K> void clearBit(Map<K, BitSet> bitsMap, K value, int docId) {
+        if (value == null) {
+            return;
+        }
+        BitSet bits = bitsMap.get(value);
+        if (bits != null) {
+            bits.clear(docId);
+            if (bits.isEmpty()) {
+                bitsMap.remove(value);
+            }
+        }
+    }
+
+    private static <K> void addPosting(Map<K, PostingList> postingMap, K value, int docId) {
+        if (value != null) {
+            postingMap.computeIfAbsent(value, key -> new PostingList()).add(docId);
+        }
+    }
+
+    private static <K> void removePosting(Map<K, PostingList> postingMap, K value, int docId) {
+        if (value == null) {
+            return;
+        }
+        PostingList postingList = postingMap.get(value);
+        if (postingList != null) {
+            postingList.remove(docId);
+            if (postingList.isEmpty()) {
+                postingMap.remove(value);
+            }
+        }
+    }
+
+    /**
+     * 分类归一化（去除首尾空白，空白视为没有分类），数据库分组统计时同样使用
+     */
+    public static String normalizeCategory(String category) {
+        return StrUtil.trimToNull(category);
+    }
+
+    /**
+     * 格式归一化（去除首尾空白并转为小写），数据库分组统计时同样使用
+     */
+    public static String normalizeFormat(String picFormat) {
+        String format = StrUtil.trimToNull(picFormat);
+        return format == null ? null : format.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 文档的索引取值
+     */
+    private static class FacetDoc {
+
+        private final String category;
+
+        private final String picFormat;
+
+        private final Integer reviewStatus;
+
+        private final Long spaceId;
+
+        private final Long userId;
+
+        private final Integer picWidth;
+
+        private final Integer picHeight;
+
+        private FacetDoc(Picture picture) {
+            this.category = normalizeCategory(picture.getCategory());
+            this.picFormat = normalizeFormat(picture.getPicFormat());
+            this.reviewStatus = picture.getReviewStatus();
+            this.spaceId = picture.getSpaceId();
+            this.userId = picture.getUserId();
+            this.picWidth = picture.getPicWidth();
+            this.picHeight = picture.getPicHeight();
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.fetters.picture.manager.index;
+
+import com.fetters.picture.model.entity.Picture;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * 图片感知哈希索引（以图搜图）
+ * <p>
+ * 按空间分段（公共图库为一段，只包含审核通过的图片），段内使用多索引哈希（multi-index hashing）：64 位哈希切成 4 段 16 位，
+ * 每段一张 段值 => 倒排表 的哈希表。两个哈希的汉明距离不超过 r 时，至少有一段的距离不超过 r / 4（抽屉原理），
+ * 因此只需在每张表中查询与目标段值距离不超过 r / 4 的全部段值，再对候选计算完整的汉明距离，结果与全量扫描一致。
+ * <p>
+ * 图片较少的段直接线性扫描，比枚举段值更快。
+ */
+@Component
+public class PictureHashIndex implements PictureIndex {
+
+    /**
+     * 哈希切分的段数
+     */
+    private static final int CHUNK_COUNT = 4;
+
+    /**
+     * 每段位数
+     */
+    private static final int CHUNK_BITS = 64 / CHUNK_COUNT;
+
+    /**
+     * 每段最多枚举的翻转位数，超过时（距离阈值过大）改为线性扫描
+     */
+    private static final int MAX_CHUNK_RADIUS = 4;
+
+    /**
+     * 段内图片数不超过该值时线性扫描
+     */
+    private static final int SCAN_THRESHOLD = 1024;
+
+    /**
+     * 空间 => 段
+     */
+    private final SpaceSegmentMap<HashSegment> segmentMap = new SpaceSegmentMap<>(HashSegment::new, HashSegment::isEmpty);
+
+    @Override
+    public void add(int docId, Picture picture) {
+        if (picture.getPicHash() == null || !PictureIndex.isSearchable(picture)) {
+            return;
+        }
+        segmentMap.getForAdd(docId, picture.getSpaceId()).add(docId, picture.getId(), picture.getPicHash());
+    }
+
+    @Override
+    public void remove(int docId) {
+        segmentMap.remove(docId, segment -> segment.remove(docId));
+    }
+
+    @Override
+    public void clear() {
+        segmentMap.clear();
+    }
+
+    /**
+     * 搜索感知哈希相近的图片
+     * @param spaceId     空间 id，为空时搜索公共图库
+     * @param hash        目标哈希
+     * @param maxDistance 最大汉明距离
+     * @param k           最多返回数量
+     * @return 图片 id，按汉明距离从小到大排序
+     */
+    public long[] search(Long spaceId, long hash, int maxDistance, int k) {
+        HashSegment segment = segmentMap.get(spaceId);
+        if (segment == null) {
+            return new long[0];
+        }
+        TopK topK = new TopK(k);
+        if (segment.size() <= SCAN_THRESHOLD || maxDistance / CHUNK_COUNT > MAX_CHUNK_RADIUS) {
+            segment.scan(hash, maxDistance, topK);
+        } else {
+            segment.probe(hash, maxDistance, topK);
+        }
+        return topK.toSortedIds();
+    }
+
+    private static int chunk(long hash, int index) {
+        return (int) (hash >>> (index * CHUNK_BITS)) & ((1 << CHUNK_BITS) - 1);
+    }
+
+    /**
+     * 一个空间内的哈希
+     */
+    private static class HashSegment {
+
+        /**
+         * 文档 id => 图片 id / 哈希
+         */
+        private final Map<Integer, HashDoc> docMap = new HashMap<>();
+
+        /**
+         * 每段一张表：段值 => 倒排表
+         */
+        private final List<Map<Integer, PostingList>> chunkTables = new ArrayList<>(CHUNK_COUNT);
+
+        HashSegment() {
+            for (int i = 0; i < CHUNK_COUNT; i++) {
+                chunkTables.add(new HashMap<>());
+            }
+        }
+
+        void add(int docId, long pictureId, long hash) {
+            docMap.put(docId, new HashDoc(pictureId, hash));
+            for (int i = 0; i < CHUNK_COUNT; i++) {
+                chunkTables.get(i).computeIfAbsent(chunk(hash, i), value -> new PostingList()).add(docId);
+            }
+        }
+
+        void remove(int docId) {
+            HashDoc doc = docMap.remove(docId);
+            if (doc == null) {
+                return;
+            }
+            for (int i = 0; i < CHUNK_COUNT; i++) {
+                Map<Integer, PostingList> chunkTable = chunkTables.get(i);
+                int value = chunk(doc.hash, i);
+                PostingList postingList = chunkTable.get(value);
+                postingList.remove(docId);
+                if (postingList.isEmpty()) {
+                    chunkTable.remove(value);
+                }
+            }
+        }
+
+        int size() {
+            return docMap.size();
+        }
+
+        boolean isEmpty() {
+            return docMap.isEmpty();
+        }
+
+        /**
+         * 线性扫描
+         */
+        void scan(long hash, int maxDistance, TopK topK) {
+            for (HashDoc doc : docMap.values()) {
+                int distance = Long.bitCount(doc.hash ^ hash);
+                if (distance <= maxDistance) {
+                    topK.offer(doc.pictureId, distance);
+                }
+            }
+        }
+
+        /**
+         * 多索引哈希：每段枚举距离不超过 maxDistance / 段数 的段值，候选去重后计算完整距离
+         */
+        void probe(long hash, int maxDistance, TopK topK) {
+            int chunkRadius = maxDistance / CHUNK_COUNT;
+            Set<Integer> visited = new HashSet<>();
+            for (int i = 0; i < CHUNK_COUNT; i++) {
+                probe(chunkTables.get(i), chunk(hash, i), 0, chunkRadius, hash, maxDistance, visited, topK);
+            }
+        }
+
+        /**
+         * 查询段值 value，再从 fromBit 起依次翻转一位递归，每个距离不超过 flips 的段值恰好查询一次
+         */
+        private void probe(Map<Integer, PostingList> chunkTable, int value, int fromBit, int flips,
+                           long hash, int maxDistance, Set<Integer> visited, TopK topK) {
+            PostingList postingList = chunkTable.get(value);
+            if (postingList != null) {
+                for (int j = 0; j < postingList.size(); j++) {
+                    int docId = postingList.get(j);
+                    if (!visited.add(docId)) {
+                        continue;
+                    }
+                    HashDoc doc = docMap.get(docId);
+                    int distance = Long.bitCount(doc.hash ^ hash);
+                    if (distance <= maxDistance) {
+                        topK.offer(doc.pictureId, distance);
+                    }
+                }
+            }
+            if (flips == 0) {
+                return;
+            }
+            for (int bit = fromBit; bit < CHUNK_BITS; bit++) {
+                probe(chunkTable, value ^ (1 << bit), bit + 1, flips - 1, hash, maxDistance, visited, topK);
+            }
+        }
+    }
+
+    /**
+     * 图片 id 及哈希
+     */
+    private static class HashDoc {
+
+        private final long pictureId;
+
+        private final long hash;
+
+        HashDoc(long pictureId, long hash) {
+            this.pictureId = pictureId;
+            this.hash = hash;
+        }
+    }
+}
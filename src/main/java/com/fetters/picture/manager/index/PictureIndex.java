@@ -0,0 +1,40 @@
+package com.fetters.picture.manager.index;
+
+import com.fetters.picture.model.entity.Picture;
+import com.fetters.picture.model.enums.PictureReviewStatusEnum;
+
+import java.util.Objects;
+
+/**
+ * 图片内存索引，由 {@link PictureIndexManager} 统一加载和同步，并在其读写锁内调用
+ */
+public interface PictureIndex {
+
+    /**
+     * 添加图片
+     * @param docId   文档 id
+     * @param picture 图片
+     */
+    void add(int docId, Picture picture);
+
+    /**
+     * 删除图片
+     * @param docId 文档 id
+     */
+    void remove(int docId);
+
+    /**
+     * 清空索引
+     */
+    void clear();
+
+    /**
+     * 图片能否被颜色、调色板、以图搜图检索到：公共图库只搜索审核通过的图片，空间内的图片均可搜索
+     * @param picture 图片
+     * @return 是否可搜索
+     */
+    static boolean isSearchable(Picture picture) {
+        return picture.getSpaceId() != null
+                || Objects.equals(picture.getReviewStatus(), PictureReviewStatusEnum.REVIEW_PASS.getValue());
+    }
+}
@@ -0,0 +1,482 @@
+package com.fetters.picture.manager.index;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.thread.ThreadUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONUtil;
+import com.fetters.picture.manager.cache.PictureListCacheManager;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.fetters.picture.mapper.PictureMapper;
+import com.fetters.picture.model.dto.picture.PictureQueryRequest;
+import com.fetters.picture.model.entity.Picture;
+import com.fetters.picture.model.vo.PictureFacetVO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * 图片内存索引管理
+ * <p>
+ * 启动后在后台线程中分批从数据库加载全部图片，建立各个 {@link PictureIndex}；图片新增、修改、审核、删除后
+ * 按 id 重新查询并更新索引，同时通过 Redis 频道通知其他节点更新。加载完成前查询接口返回 null，调用方退化为 SQL 查询。
+ * <p>
+ * 索引内部使用连续的 int 文档 id（docId），图片 id 与文档 id 一一对应，删除后文档 id 不再复用。
+ * 所有索引共用一把读写锁：写操作（加载、同步）持有写锁，查询持有读锁。
+ * <p>
+ * 索引只用于缩小候选范围，查询结果仍由数据库按原条件过滤，因此短暂的不一致（如其他节点尚未收到通知）不会返回错误数据。
+ * <p>
+ * 同步消息中携带分页缓存的范围版本号，本节点记录每个范围的索引已同步到的版本号。其他节点自增 Redis 中的版本号后，
+ * 本节点可能在处理同步消息前就读到新版本号，此时用旧索引查询的分页会以新版本号写入 Redis，缺少新图片的结果会被所有节点使用，
+ * 因此索引尚未同步到缓存 key 使用的版本号时不提供候选 id，查询退化为 LIKE。
+ */
+@Slf4j
+@Component
+public class PictureIndexManager {
+
+    /**
+     * 索引同步频道（消息内容为 {@link PictureIndexSyncMessage}）
+     */
+    public static final String SYNC_CHANNEL = "picture:index:sync";
+
+    /**
+     * 每批加载的图片数
+     */
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    /**
+     * 候选 id 超过该数量时不再使用索引（id IN 列表过长，且高频词直接按排序索引扫描 + LIMIT 更快）
+     */
+    public static final int MAX_CANDIDATE_COUNT = 2000;
+
+    /**
+     * 分面统计最多返回的标签数
+     */
+    private static final int FACET_TAG_LIMIT = 20;
+
+    @Resource
+    private PictureMapper pictureMapper;
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private PictureListCacheManager pictureListCacheManager;
+
+    @Resource
+    private List<PictureIndex> pictureIndexList;
+
+    @Resource
+    private PictureTextIndex pictureTextIndex;
+
+    @Resource
+    private PictureTagIndex pictureTagIndex;
+
+    @Resource
+    private PictureFacetIndex pictureFacetIndex;
+
+    @Resource
+    private PictureColorIndex pictureColorIndex;
+
+    @Resource
+    private PicturePaletteIndex picturePaletteIndex;
+
+    @Resource
+    private PictureHashIndex pictureHashIndex;
+
+    @Value("${picture.index.enabled:true}")
+    private boolean enabled;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 图片 id => 文档 id
+     */
+    private final Map<Long, Integer> docIdMap = new HashMap<>();
+
+    /**
+     * 文档 id => 图片 id / 图片更新时间
+     */
+    private long[] pictureIds = new long[1024];
+
+    private long[] updateTimes = new long[1024];
+
+    private int nextDocId;
+
+    /**
+     * 是否加载完成
+     */
+    private volatile boolean ready;
+
+    /**
+     * 加载期间被删除的图片，避免加载时读到的旧数据将其重新加入
+     */
+    private final Set<Long> removedDuringLoad = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 缓存范围 => 本节点索引已同步到的分页缓存版本号，没有记录时为 0
+     */
+    private final Map<String, Long> appliedGenerationMap = new ConcurrentHashMap<>();
+
+    /**
+     * 应用启动后在后台加载索引，不阻塞启动
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        ThreadUtil.newThread(this::loadAll, "picture-index-load", true).start();
+    }
+
+    /**
+     * 图片写操作后调用（不影响分页结果时）：重新查询图片并更新本节点索引，再通知其他节点
+     * @param pictureIds 图片 id
+     */
+    public void refresh(Collection<Long> pictureIds) {
+        if (!enabled) {
+            return;
+        }
+        refresh(pictureIds, null);
+    }
+
+    /**
+     * 图片写操作后调用：先更新本节点索引，再使分页缓存范围失效，最后通知其他节点按同样的顺序处理
+     * <p>
+     * 搜索词、标签查询依赖索引，先切换版本号再更新索引时，中间的请求会用旧索引构建新版本的分页缓存并写入 Redis，
+     * 新增或修改的图片在缓存过期前一直缺失；版本号与索引同步放在同一条消息中，其他节点同样先更新索引再切换版本号。
+     * @param pictureIds 图片 id
+     * @param cacheScope 需要失效的分页缓存范围，为空时不清理分页缓存
+     */
+    public void refresh(Collection<Long> pictureIds, String cacheScope) {
+        if (CollUtil.isEmpty(pictureIds)) {
+            return;
+        }
+        refreshLocal(pictureIds);
+        Long cacheGeneration = cacheScope == null ? null : pictureListCacheManager.invalidateWithoutBroadcast(cacheScope);
+        markApplied(cacheScope, cacheGeneration);
+        PictureIndexSyncMessage syncMessage = new PictureIndexSyncMessage(new ArrayList<>(pictureIds), cacheScope, cacheGeneration);
+        stringRedisTemplate.convertAndSend(SYNC_CHANNEL, JSONUtil.toJsonStr(syncMessage));
+    }
+
+    /**
+     * 处理其他节点（及本节点）发出的同步消息：先更新索引，再切换分页缓存版本号
+     * @param syncMessage 同步消息
+     */
+    public void onSyncMessage(PictureIndexSyncMessage syncMessage) {
+        refreshLocal(syncMessage.getPictureIds());
+        markApplied(syncMessage.getCacheScope(), syncMessage.getCacheGeneration());
+        if (syncMessage.getCacheScope() != null) {
+            pictureListCacheManager.evictLocal(syncMessage.getCacheScope(), syncMessage.getCacheGeneration());
+        }
+    }
+
+    /**
+     * 更新本节点索引（收到同步消息时调用，本节点发出的消息会再执行一次，结果相同）
+     * @param pictureIds 图片 id
+     */
+    public void refreshLocal(Collection<Long> pictureIds) {
+        if (!enabled || CollUtil.isEmpty(pictureIds)) {
+            return;
+        }
+        Map<Long, Picture> pictureMap = pictureMapper.selectBatchIds(pictureIds).stream()
+                .collect(Collectors.toMap(Picture::getId, picture -> picture));
+        lock.writeLock().lock();
+        try {
+            for (Long pictureId : pictureIds) {
+                Picture picture = pictureMap.get(pictureId);
+                if (picture != null) {
+                    put(picture, true);
+                } else {
+                    remove(pictureId);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 根据查询请求中的搜索词、标签条件求交集，得到候选图片 id
+     * <p>
+     * 只用于代替 LIKE 全表扫描的条件；空间、用户、审核状态等等值条件交由数据库（有索引）处理，
+     * 否则本节点索引尚未同步的图片会被 id IN 条件排除，从结果中丢失。
+     * @param pictureQueryRequest 图片查询请求
+     * @return 候选图片 id；没有搜索词和标签条件、索引未就绪、索引未同步到分页缓存版本号或候选过多时返回 null
+     */
+    public List<Long> findCandidateIds(PictureQueryRequest pictureQueryRequest) {
+        if (!ready || !isGenerationApplied(pictureQueryRequest)) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            PostingList postingList = searchPostings(pictureQueryRequest);
+            return postingList == null ? null : toPictureIds(postingList);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 分面统计：筛选条件下各分类、格式、标签的图片数，完全在内存中计算
+     * @param pictureQueryRequest 图片查询请求
+     * @return 分面统计；索引未就绪或包含索引不支持的条件时返回 null
+     */
+    public PictureFacetVO facet(PictureQueryRequest pictureQueryRequest) {
+        if (!ready || !isFacetSupported(pictureQueryRequest)) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            BitSet docBits = pictureFacetIndex.filter(pictureQueryRequest);
+            if (docBits == null) {
+                docBits = pictureFacetIndex.all();
+            }
+            PostingList postingList = searchPostings(pictureQueryRequest);
+            if (postingList != null) {
+                docBits.and(PictureFacetIndex.toBitSet(postingList));
+            }
+            PictureFacetVO pictureFacetVO = new PictureFacetVO();
+            pictureFacetVO.setTotal(docBits.cardinality());
+            pictureFacetVO.setCategoryCounts(pictureFacetIndex.countCategories(docBits));
+            pictureFacetVO.setFormatCounts(pictureFacetIndex.countFormats(docBits));
+            pictureFacetVO.setTagCounts(pictureTagIndex.countTags(docBits, FACET_TAG_LIMIT));
+            return pictureFacetVO;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 颜色搜图：按主色调色差（ΔE00）取最相似的 K 个图片
+     * @param spaceId   空间 id，为空时搜索公共图库（仅审核通过的图片）
+     * @param rgb       目标颜色（0xRRGGBB）
+     * @param k         最多返回数量
+     * @param maxDeltaE 色差阈值，不限制时传 Double.POSITIVE_INFINITY
+     * @return 图片 id，按色差从小到大排序；索引未就绪时返回 null
+     */
+    public long[] searchColor(Long spaceId, int rgb, int k, double maxDeltaE) {
+        if (!ready) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            return pictureColorIndex.search(spaceId, rgb, k, maxDeltaE);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 调色板搜图：图片的调色板需要包含每一种目标颜色
+     * @param spaceId   空间 id，为空时搜索公共图库（仅审核通过的图片）
+     * @param rgbs      目标颜色（0xRRGGBB）
+     * @param maxDeltaE 调色板颜色与目标颜色的色差阈值
+     * @param k         最多返回数量
+     * @return 图片 id，按匹配程度从高到低排序；索引未就绪时返回 null
+     */
+    public long[] searchPalette(Long spaceId, int[] rgbs, double maxDeltaE, int k) {
+        if (!ready) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            return picturePaletteIndex.search(spaceId, rgbs, maxDeltaE, k);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 以图搜图：按感知哈希的汉明距离取相近的图片
+     * @param spaceId     空间 id，为空时搜索公共图库（仅审核通过的图片）
+     * @param hash        目标哈希
+     * @param maxDistance 最大汉明距离
+     * @param k           最多返回数量
+     * @return 图片 id，按汉明距离从小到大排序；索引未就绪时返回 null
+     */
+    public long[] searchSimilar(Long spaceId, long hash, int maxDistance, int k) {
+        if (!ready) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            return pictureHashIndex.search(spaceId, hash, maxDistance, k);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 本节点索引是否已同步到分页缓存 key 使用的范围版本号
+     * <p>
+     * 构建缓存 key 时使用的版本号已写入本地版本号缓存，此后只会变大，本地版本号不大于已同步的版本号即可使用索引；
+     * 本地版本号已过期时无法判断，按未同步处理。
+     */
+    private boolean isGenerationApplied(PictureQueryRequest pictureQueryRequest) {
+        Long spaceId = pictureQueryRequest.getSpaceId();
+        if (spaceId == null && !pictureQueryRequest.isNullSpaceId()) {
+            // 不限范围的查询（管理员）不使用分页缓存
+            return true;
+        }
+        String cacheScope = PictureListCacheManager.getScope(spaceId);
+        Long generation = pictureListCacheManager.getLocalGeneration(cacheScope);
+        return generation != null && generation <= appliedGenerationMap.getOrDefault(cacheScope, 0L);
+    }
+
+    /**
+     * 记录范围的索引已同步到的版本号
+     */
+    private void markApplied(String cacheScope, Long cacheGeneration) {
+        if (cacheScope != null && cacheGeneration != null) {
+            appliedGenerationMap.merge(cacheScope, cacheGeneration, Math::max);
+        }
+    }
+
+    /**
+     * 分面统计需要精确结果：只支持索引能精确表达的条件，搜索词超过两个字符时 n-gram 求交可能有误差
+     */
+    private boolean isFacetSupported(PictureQueryRequest pictureQueryRequest) {
+        String searchText = pictureQueryRequest.getSearchText();
+        return pictureQueryRequest.getId() == null
+                && pictureQueryRequest.getName() == null
+                && pictureQueryRequest.getIntroduction() == null
+                && pictureQueryRequest.getPicSize() == null
+                && pictureQueryRequest.getPicScale() == null
+                && pictureQueryRequest.getPicFormat() == null
+                && pictureQueryRequest.getReviewMessage() == null
+                && pictureQueryRequest.getReviewerId() == null
+                && pictureQueryRequest.getReviewTime() == null
+                && pictureQueryRequest.getStartEditTime() == null
+                && pictureQueryRequest.getEndEditTime() == null
+                && (searchText == null || PictureTextIndex.normalize(searchText).trim().length() <= 2);
+    }
+
+    /**
+     * 搜索词、标签条件的倒排表求交（需持有读锁）
+     * @return 文档 id；没有这两类条件时返回 null
+     */
+    private PostingList searchPostings(PictureQueryRequest pictureQueryRequest) {
+        String searchText = pictureQueryRequest.getSearchText();
+        List<String> tags = pictureQueryRequest.getTags();
+        PostingList result = null;
+        if (StrUtil.isNotBlank(searchText)) {
+            result = pictureTextIndex.search(searchText);
+        }
+        if (CollUtil.isNotEmpty(tags)) {
+            PostingList tagResult = pictureTagIndex.search(tags, pictureQueryRequest.isAnyTag());
+            result = result == null ? tagResult : PostingList.intersect(result, tagResult);
+        }
+        return result;
+    }
+
+    /**
+     * 文档 id 转图片 id，数量超过上限返回 null
+     */
+    private List<Long> toPictureIds(PostingList postingList) {
+        if (postingList.size() > MAX_CANDIDATE_COUNT) {
+            return null;
+        }
+        List<Long> pictureIdList = new ArrayList<>(postingList.size());
+        for (int i = 0; i < postingList.size(); i++) {
+            pictureIdList.add(pictureIds[postingList.get(i)]);
+        }
+        return pictureIdList;
+    }
+
+    /**
+     * 按 id 顺序分批加载全部图片
+     */
+    private void loadAll() {
+        long startTime = System.currentTimeMillis();
+        long lastId = 0L;
+        int count = 0;
+        try {
+            // 加载前已自增的版本号对应的修改都能从数据库读到，之后的版本号由同步消息记录
+            pictureListCacheManager.getScopeGenerations().forEach(this::markApplied);
+            while (true) {
+                QueryWrapper<Picture> queryWrapper = new QueryWrapper<>();
+                queryWrapper.gt("id", lastId).orderByAsc("id").last("limit " + LOAD_BATCH_SIZE);
+                List<Picture> pictureList = pictureMapper.selectList(queryWrapper);
+                if (pictureList.isEmpty()) {
+                    break;
+                }
+                lock.writeLock().lock();
+                try {
+                    for (Picture picture : pictureList) {
+                        if (!removedDuringLoad.contains(picture.getId())) {
+                            put(picture, false);
+                        }
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                count += pictureList.size();
+                lastId = pictureList.get(pictureList.size() - 1).getId();
+            }
+            ready = true;
+            removedDuringLoad.clear();
+            log.info("图片索引加载完成, count = {}, cost = {}ms", count, System.currentTimeMillis() - startTime);
+        } catch (Exception e) {
+            log.error("图片索引加载失败，查询将使用数据库", e);
+        }
+    }
+
+    /**
+     * 添加或更新图片（需持有写锁）
+     * @param force 是否强制更新；加载时读到的数据可能比同步时旧，按更新时间判断（更新时间精确到秒，相同时保留同步的数据）
+     */
+    private void put(Picture picture, boolean force) {
+        long updateTime = picture.getUpdateTime() == null ? 0L : picture.getUpdateTime().getTime();
+        Integer docId = docIdMap.get(picture.getId());
+        if (docId != null) {
+            if (!force && updateTime <= updateTimes[docId]) {
+                return;
+            }
+            for (PictureIndex pictureIndex : pictureIndexList) {
+                pictureIndex.remove(docId);
+            }
+        } else {
+            docId = allocateDocId(picture.getId());
+        }
+        updateTimes[docId] = updateTime;
+        for (PictureIndex pictureIndex : pictureIndexList) {
+            pictureIndex.add(docId, picture);
+        }
+    }
+
+    /**
+     * 删除图片（需持有写锁）
+     */
+    private void remove(Long pictureId) {
+        if (!ready) {
+            removedDuringLoad.add(pictureId);
+        }
+        Integer docId = docIdMap.remove(pictureId);
+        if (docId != null) {
+            pictureIndexList.forEach(pictureIndex -> pictureIndex.remove(docId));
+        }
+    }
+
+    /**
+     * 分配文档 id（需持有写锁）
+     */
+    private int allocateDocId(long pictureId) {
+        int docId = nextDocId++;
+        if (docId == pictureIds.length) {
+            pictureIds = Arrays.copyOf(pictureIds, docId * 2);
+            updateTimes = Arrays.copyOf(updateTimes, docId * 2);
+        }
+        pictureIds[docId] = pictureId;
+        docIdMap.put(pictureId, docId);
+        return docId;
+    }
+}
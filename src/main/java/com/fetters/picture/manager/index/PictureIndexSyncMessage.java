@@ -0,0 +1,36 @@
+package com.fetters.picture.manager.index;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 图片索引同步消息（通过 Redis 频道广播给所有节点）
+ * <p>
+ * 图片写操作影响分页结果时，分页缓存的新版本号随索引同步消息一起发送，收到后先更新索引再切换版本号。
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PictureIndexSyncMessage implements Serializable {
+
+    /**
+     * 需要重新加载的图片 id
+     */
+    private List<Long> pictureIds;
+
+    /**
+     * 需要失效的分页缓存范围，为空表示不涉及分页缓存
+     */
+    private String cacheScope;
+
+    /**
+     * 失效后的分页缓存版本号
+     */
+    private Long cacheGeneration;
+
+    private static final long serialVersionUID = 1L;
+}
@@ -0,0 +1,206 @@
+package com.fetters.picture.manager.index;
+
+import cn.hutool.core.util.StrUtil;
+import com.fetters.picture.model.entity.Picture;
+import com.fetters.picture.utils.ColorPaletteUtils;
+import com.fetters.picture.utils.ColorPaletteUtils.PaletteColor;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * 图片调色板索引
+ * <p>
+ * 每张图片的调色板颜色（最多 5 种）各作为一个条目放入所在空间的 {@link LabGrid}，条目 id 为 文档 id × 8 + 序号；
+ * 没有调色板的历史图片以主色调作为唯一颜色（占比 100%）。公共图库只包含审核通过的图片。
+ * <p>
+ * 搜索时对每个目标颜色只扫描色差下界不超过阈值的网格，找出色差在阈值内的调色板颜色；
+ * 图片需要每个目标颜色都有匹配，按匹配颜色的占比之和从高到低排序，相同时按各目标颜色的最小色差之和从小到大排序。
+ */
+@Component
+public class PicturePaletteIndex implements PictureIndex {
+
+    /**
+     * 条目 id 中序号占用的位数
+     */
+    private static final int SLOT_BITS = 3;
+
+    /**
+     * 空间 => 网格
+     */
+    private final SpaceSegmentMap<LabGrid> segmentMap = new SpaceSegmentMap<>(LabGrid::new, LabGrid::isEmpty);
+
+    /**
+     * 文档 id => 各调色板颜色的占比
+     */
+    private final Map<Integer, byte[]> weightsMap = new HashMap<>();
+
+    @Override
+    public void add(int docId, Picture picture) {
+        if (!PictureIndex.isSearchable(picture)) {
+            return;
+        }
+        List<PaletteColor> paletteList = getPaletteList(picture);
+        if (paletteList.isEmpty()) {
+            return;
+        }
+        LabGrid grid = segmentMap.getForAdd(docId, picture.getSpaceId());
+        byte[] weights = new byte[paletteList.size()];
+        for (int slot = 0; slot < paletteList.size(); slot++) {
+            grid.add(entryId(docId, slot), picture.getId(), paletteList.get(slot).getRgb());
+            weights[slot] = (byte) paletteList.get(slot).getWeight();
+        }
+        weightsMap.put(docId, weights);
+    }
+
+    @Override
+    public void remove(int docId) {
+        byte[] weights = weightsMap.remove(docId);
+        if (weights == null) {
+            return;
+        }
+        segmentMap.remove(docId, grid -> {
+            for (int slot = 0; slot < weights.length; slot++) {
+                grid.remove(entryId(docId, slot));
+            }
+        });
+    }
+
+    @Override
+    public void clear() {
+        segmentMap.clear();
+        weightsMap.clear();
+    }
+
+    /**
+     * 按调色板搜索图片
+     * @param spaceId   空间 id，为空时搜索公共图库
+     * @param rgbs      目标颜色（0xRRGGBB），图片需要包含每一种
+     * @param maxDeltaE 调色板颜色与目标颜色的色差阈值
+     * @param k         最多返回数量
+     * @return 图片 id，按匹配程度从高到低排序
+     */
+    public long[] search(Long spaceId, int[] rgbs, double maxDeltaE, int k) {
+        LabGrid grid = segmentMap.get(spaceId);
+        if (grid == null) {
+            return new long[0];
+        }
+        // 文档 id => 匹配情况
+        Map<Integer, PaletteMatch> matchMap = new HashMap<>();
+        List<LabGrid.CellBound> cellBoundList = new ArrayList<>();
+        for (int query = 0; query < rgbs.length; query++) {
+            ColorTarget target = new ColorTarget(rgbs[query]);
+            cellBoundList.clear();
+            grid.collectCells(target, maxDeltaE, cellBoundList);
+            for (LabGrid.CellBound cellBound : cellBoundList) {
+                LabGrid.Cell cell = cellBound.cell;
+                for (int i = 0; i < cell.size(); i++) {
+                    if (target.lowerBound(cell.l(i), cell.a(i), cell.b(i)) > maxDeltaE) {
+                        continue;
+                    }
+                    double deltaE = target.deltaE(cell.l(i), cell.a(i), cell.b(i));
+                    if (deltaE > maxDeltaE) {
+                        continue;
+                    }
+                    int docId = cell.entryId(i) >>> SLOT_BITS;
+                    // 之前的目标颜色没有匹配的图片不可能入选
+                    PaletteMatch match = matchMap.get(docId);
+                    if (match == null) {
+                        if (query > 0) {
+                            continue;
+                        }
+                        match = new PaletteMatch(cell.pictureId(i), rgbs.length);
+                        matchMap.put(docId, match);
+                    } else if (!match.matchedAll(query)) {
+                        continue;
+                    }
+                    int slot = cell.entryId(i) & ((1 << SLOT_BITS) - 1);
+                    match.add(query, weightsMap.get(docId)[slot], deltaE);
+                }
+            }
+        }
+        int queryCount = rgbs.length;
+        TopK topK = new TopK(k);
+        for (PaletteMatch match : matchMap.values()) {
+            if (match.matchedAll(queryCount)) {
+                // 占比之和为主要排序依据（每个目标颜色最多 100），色差之和（不超过 目标数 × 阈值）为次要依据
+                double distance = (queryCount * 100 - match.coverage) * (queryCount * maxDeltaE + 1) + match.deltaESum();
+                topK.offer(match.pictureId, distance);
+            }
+        }
+        return topK.toSortedIds();
+    }
+
+    /**
+     * 图片的调色板，没有时以主色调代替
+     */
+    private static List<PaletteColor> getPaletteList(Picture picture) {
+        if (StrUtil.isNotBlank(picture.getPicPalette())) {
+            List<PaletteColor> paletteList = ColorPaletteUtils.decode(picture.getPicPalette());
+            if (!paletteList.isEmpty()) {
+                return paletteList.size() > ColorPaletteUtils.MAX_COLORS
+                        ? paletteList.subList(0, ColorPaletteUtils.MAX_COLORS) : paletteList;
+            }
+        }
+        int rgb = PictureColorIndex.parseColor(picture.getPicColor());
+        return rgb < 0 ? Collections.emptyList() : Collections.singletonList(new PaletteColor(rgb, 100));
+    }
+
+    private static int entryId(int docId, int slot) {
+        return docId << SLOT_BITS | slot;
+    }
+
+    /**
+     * 一张图片的匹配情况（单次搜索内使用）
+     */
+    private static class PaletteMatch {
+
+        private final long pictureId;
+
+        /**
+         * 已匹配的目标颜色
+         */
+        private int matchedMask;
+
+        /**
+         * 匹配的调色板颜色占比之和
+         */
+        private int coverage;
+
+        /**
+         * 每个目标颜色的最小色差
+         */
+        private final double[] minDeltaEs;
+
+        PaletteMatch(long pictureId, int queryCount) {
+            this.pictureId = pictureId;
+            this.minDeltaEs = new double[queryCount];
+        }
+
+        /**
+         * 前 queryCount 个目标颜色是否都已匹配
+         */
+        boolean matchedAll(int queryCount) {
+            int mask = (1 << queryCount) - 1;
+            return (matchedMask & mask) == mask;
+        }
+
+        void add(int query, int weight, double deltaE) {
+            if ((matchedMask & (1 << query)) == 0) {
+                matchedMask |= 1 << query;
+                minDeltaEs[query] = deltaE;
+            } else {
+                minDeltaEs[query] = Math.min(minDeltaEs[query], deltaE);
+            }
+            coverage += weight;
+        }
+
+        double deltaESum() {
+            double sum = 0;
+            for (double minDeltaE : minDeltaEs) {
+                sum += minDeltaE;
+            }
+            return sum;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.fetters.picture.manager.index;
+
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONUtil;
+import com.fetters.picture.model.entity.Picture;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * 图片标签索引：标签 => 倒排表
+ * <p>
+ * 替代 tags LIKE '%"标签"%' 的全表扫描。标签忽略大小写，与数据库排序规则一致。
+ */
+@Slf4j
+@Component
+public class PictureTagIndex implements PictureIndex {
+
+    /**
+     * 标签 => 倒排表
+     */
+    private final Map<String, PostingList> postingMap = new HashMap<>();
+
+    /**
+     * 文档 id => 标签，删除时使用
+     */
+    private final Map<Integer, String[]> docTagMap = new HashMap<>();
+
+    @Override
+    public void add(int docId, Picture picture) {
+        Set<String> tagSet = parseTags(picture.getTags());
+        if (tagSet.isEmpty()) {
+            return;
+        }
+        for (String tag : tagSet) {
+            postingMap.computeIfAbsent(tag, key -> new PostingList()).add(docId);
+        }
+        docTagMap.put(docId, tagSet.toArray(new String[0]));
+    }
+
+    @Override
+    public void remove(int docId) {
+        String[] tags = docTagMap.remove(docId);
+        if (tags == null) {
+            return;
+        }
+        for (String tag : tags) {
+            PostingList postingList = postingMap.get(tag);
+            if (postingList == null) {
+                continue;
+            }
+            postingList.remove(docId);
+            if (postingList.isEmpty()) {
+                postingMap.remove(tag);
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        postingMap.clear();
+        docTagMap.clear();
+    }
+
+    /**
+     * 按标签查询
+     * @param tags   标签
+     * @param anyTag true：包含任一标签；false：包含全部标签
+     * @return 文档 id
+     */
+    public PostingList search(Collection<String> tags, boolean anyTag) {
+        List<PostingList> postingLists = new ArrayList<>(tags.size());
+        for (String tag : tags) {
+            PostingList postingList = postingMap.get(normalize(tag));
+            if (postingList != null) {
+                postingLists.add(postingList);
+            } else if (!anyTag) {
+                return new PostingList();
+            }
+        }
+        if (postingLists.isEmpty()) {
+            return new PostingList();
+        }
+        // 从短到长求交集（并集与顺序无关）
+        postingLists.sort(Comparator.comparingInt(PostingList::size));
+        PostingList result = postingLists.get(0);
+        for (int i = 1; i < postingLists.size(); i++) {
+            if (anyTag) {
+                result = PostingList.union(result, postingLists.get(i));
+            } else {
+                result = PostingList.intersect(result, postingLists.get(i));
+                if (result.isEmpty()) {
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 统计位图中的图片各标签的数量
+     * @param docBits 文档 id 位图
+     * @param limit   最多返回的标签数
+     * @return 标签 => 图片数，按数量降序
+     */
+    public Map<String, Long> countTags(BitSet docBits, int limit) {
+        List<Map.Entry<String, Long>> countList = new ArrayList<>();
+        postingMap.forEach((tag, postingList) -> {
+            long count = 0;
+            for (int i = 0; i < postingList.size(); i++) {
+                if (docBits.get(postingList.get(i))) {
+                    count++;
+                }
+            }
+            if (count > 0) {
+                countList.add(new AbstractMap.SimpleEntry<>(tag, count));
+            }
+        });
+        countList.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        Map<String, Long> result = new LinkedHashMap<>();
+        countList.stream().limit(limit).forEach(entry -> result.put(entry.getKey(), entry.getValue()));
+        return result;
+    }
+
+    /**
+     * 解析数据库中的标签 JSON 数组
+     */
+    private static Set<String> parseTags(String tags) {
+        Set<String> tagSet = new HashSet<>();
+        if (StrUtil.isBlank(tags)) {
+            return tagSet;
+        }
+        try {
+            for (String tag : JSONUtil.toList(tags, String.class)) {
+                if (StrUtil.isNotBlank(tag)) {
+                    tagSet.add(normalize(tag));
+                }
+            }
+        } catch (Exception e) {
+            log.warn("图片标签格式错误, tags = {}", tags);
+        }
+        return tagSet;
+    }
+
+    private static String normalize(String tag) {
+        return tag.trim().toLowerCase(Locale.ROOT);
+    }
+}
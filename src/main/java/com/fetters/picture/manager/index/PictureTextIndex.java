@@ -0,0 +1,171 @@
+package com.fetters.picture.manager.index;
+
+import cn.hutool.core.util.StrUtil;
+import com.fetters.picture.model.entity.Picture;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * 图片名称、简介全文索引（searchText）
+ * <p>
+ * 中文没有空格分词，按 n-gram 切分：每个字符（unigram）和相邻两个字符（bigram）都作为词条，
+ * 英文、数字同样按字符切分，从而支持与 LIKE '%x%' 相同的任意子串查询。
+ * 查询时取查询串的所有 bigram（只有一个字符时取 unigram），按倒排表从短到长求交集，
+ * 名称、简介分别求交集后再取并集，得到的是候选集合（包含查询串的图片一定在其中），由 SQL 中的 LIKE 精确过滤。
+ * <p>
+ * 与数据库 utf8mb4_unicode_ci 排序规则保持一致：忽略大小写和重音符号。
+ */
+@Component
+public class PictureTextIndex implements PictureIndex {
+
+    private static final Pattern COMBINING_MARK_PATTERN = Pattern.compile("\\p{M}+");
+
+    private final FieldIndex nameIndex = new FieldIndex();
+
+    private final FieldIndex introductionIndex = new FieldIndex();
+
+    @Override
+    public void add(int docId, Picture picture) {
+        nameIndex.add(docId, picture.getName());
+        introductionIndex.add(docId, picture.getIntroduction());
+    }
+
+    @Override
+    public void remove(int docId) {
+        nameIndex.remove(docId);
+        introductionIndex.remove(docId);
+    }
+
+    @Override
+    public void clear() {
+        nameIndex.clear();
+        introductionIndex.clear();
+    }
+
+    /**
+     * 搜索名称或简介中包含查询串的候选图片
+     * @param searchText 查询串
+     * @return 候选文档 id
+     */
+    public PostingList search(String searchText) {
+        List<String> queryTokens = queryTokens(searchText);
+        return PostingList.union(nameIndex.search(queryTokens), introductionIndex.search(queryTokens));
+    }
+
+    /**
+     * 归一化：去除重音符号、转小写
+     */
+    static String normalize(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return COMBINING_MARK_PATTERN.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 索引词条：所有 unigram 和 bigram（不跨越空白字符）
+     */
+    static Set<String> indexTokens(String text) {
+        Set<String> tokenSet = new HashSet<>();
+        if (StrUtil.isBlank(text)) {
+            return tokenSet;
+        }
+        String normalized = normalize(text);
+        for (int i = 0; i < normalized.length(); i++) {
+            char current = normalized.charAt(i);
+            if (Character.isWhitespace(current)) {
+                continue;
+            }
+            tokenSet.add(String.valueOf(current));
+            if (i + 1 < normalized.length() && !Character.isWhitespace(normalized.charAt(i + 1))) {
+                tokenSet.add(normalized.substring(i, i + 2));
+            }
+        }
+        return tokenSet;
+    }
+
+    /**
+     * 查询词条：所有 bigram，没有 bigram 时（单个字符或被空白隔开的字符）取 unigram
+     */
+    static List<String> queryTokens(String searchText) {
+        List<String> bigramList = new ArrayList<>();
+        List<String> unigramList = new ArrayList<>();
+        for (String token : indexTokens(searchText)) {
+            (token.length() == 2 ? bigramList : unigramList).add(token);
+        }
+        return bigramList.isEmpty() ? unigramList : bigramList;
+    }
+
+    /**
+     * 单个字段的倒排索引
+     */
+    private static class FieldIndex {
+
+        /**
+         * 词条 => 倒排表
+         */
+        private final Map<String, PostingList> postingMap = new HashMap<>();
+
+        /**
+         * 文档 id => 词条，删除时使用
+         */
+        private final Map<Integer, String[]> docTokenMap = new HashMap<>();
+
+        private void add(int docId, String text) {
+            Set<String> tokenSet = indexTokens(text);
+            if (tokenSet.isEmpty()) {
+                return;
+            }
+            for (String token : tokenSet) {
+                postingMap.computeIfAbsent(token, key -> new PostingList()).add(docId);
+            }
+            docTokenMap.put(docId, tokenSet.toArray(new String[0]));
+        }
+
+        private void remove(int docId) {
+            String[] tokens = docTokenMap.remove(docId);
+            if (tokens == null) {
+                return;
+            }
+            for (String token : tokens) {
+                PostingList postingList = postingMap.get(token);
+                if (postingList == null) {
+                    continue;
+                }
+                postingList.remove(docId);
+                if (postingList.isEmpty()) {
+                    postingMap.remove(token);
+                }
+            }
+        }
+
+        private void clear() {
+            postingMap.clear();
+            docTokenMap.clear();
+        }
+
+        /**
+         * 按倒排表从短到长求交集，结果为空时提前结束
+         */
+        private PostingList search(List<String> queryTokens) {
+            List<PostingList> postingLists = new ArrayList<>(queryTokens.size());
+            for (String token : queryTokens) {
+                PostingList postingList = postingMap.get(token);
+                if (postingList == null) {
+                    return new PostingList();
+                }
+                postingLists.add(postingList);
+            }
+            if (postingLists.isEmpty()) {
+                return new PostingList();
+            }
+            postingLists.sort(Comparator.comparingInt(PostingList::size));
+            PostingList result = postingLists.get(0);
+            for (int i = 1; i < postingLists.size() && !result.isEmpty(); i++) {
+                result = PostingList.intersect(result, postingLists.get(i));
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.fetters.picture.manager.index;
+
+import java.util.Arrays;
+
+/**
+ * 倒排表：升序、不重复的文档 id（docId）数组
+ * <p>
+ * 图片 id 为雪花 id，索引内部使用连续的 int 文档 id，倒排表更紧凑，求交集只需顺序归并。
+ * 非线程安全，由 {@link PictureIndexManager} 加锁访问。
+ */
+public class PostingList {
+
+    private int[] docIds;
+
+    private int size;
+
+    public PostingList() {
+        this(4);
+    }
+
+    public PostingList(int capacity) {
+        this.docIds = new int[Math.max(capacity, 1)];
+    }
+
+    /**
+     * 添加文档，已存在时忽略
+     * @param docId 文档 id
+     */
+    public void add(int docId) {
+        // 新增图片的文档 id 最大，通常直接追加
+        if (size == 0 || docIds[size - 1] < docId) {
+            append(docId);
+            return;
+        }
+        int index = Arrays.binarySearch(docIds, 0, size, docId);
+        if (index >= 0) {
+            return;
+        }
+        int insertIndex = -index - 1;
+        ensureCapacity(size + 1);
+        System.arraycopy(docIds, insertIndex, docIds, insertIndex + 1, size - insertIndex);
+        docIds[insertIndex] = docId;
+        size++;
+    }
+
+    /**
+     * 删除文档
+     * @param docId 文档 id
+     */
+    public void remove(int docId) {
+        int index = Arrays.binarySearch(docIds, 0, size, docId);
+        if (index < 0) {
+            return;
+        }
+        System.arraycopy(docIds, index + 1, docIds, index, size - index - 1);
+        size--;
+    }
+
+    public boolean contains(int docId) {
+        return Arrays.binarySearch(docIds, 0, size, docId) >= 0;
+    }
+
+    public int get(int index) {
+        return docIds[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * 求交集
+     */
+    public static PostingList intersect(PostingList a, PostingList b) {
+        PostingList result = new PostingList(Math.min(a.size, b.size));
+        int i = 0;
+        int j = 0;
+        while (i < a.size && j < b.size) {
+            int x = a.docIds[i];
+            int y = b.docIds[j];
+            if (x == y) {
+                result.append(x);
+                i++;
+                j++;
+            } else if (x < y) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 求并集
+     */
+    public static PostingList union(PostingList a, PostingList b) {
+        PostingList result = new PostingList(a.size + b.size);
+        int i = 0;
+        int j = 0;
+        while (i < a.size || j < b.size) {
+            if (j >= b.size || (i < a.size && a.docIds[i] < b.docIds[j])) {
+                result.append(a.docIds[i++]);
+            } else if (i >= a.size || b.docIds[j] < a.docIds[i]) {
+                result.append(b.docIds[j++]);
+            } else {
+                result.append(a.docIds[i]);
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    private void append(int docId) {
+        ensureCapacity(size + 1);
+        docIds[size++] = docId;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > docIds.length) {
+            docIds = Arrays.copyOf(docIds, Math.max(capacity, docIds.length * 2));
+        }
+    }
+}
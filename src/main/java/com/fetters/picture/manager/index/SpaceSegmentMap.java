@@ -0,0 +1,81 @@
+package com.fetters.picture.manager.index;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * 按空间分段的索引数据：公共图库为一段，每个空间各一段，搜索时只访问目标空间的段
+ * <p>
+ * 同时记录每个文档所在的空间，删除时找到对应的段，段为空时移除。非线程安全，由 {@link PictureIndexManager} 的读写锁保护。
+ * @param <S> 段的类型
+ */
+class SpaceSegmentMap<S> {
+
+    /**
+     * 空间 id => 段，公共图库的 key 为 null
+     */
+    private final Map<Long, S> segmentMap = new HashMap<>();
+
+    /**
+     * 文档 id => 所在空间
+     */
+    private final Map<Integer, Long> docSpaceMap = new HashMap<>();
+
+    private final Supplier<S> segmentFactory;
+
+    private final Predicate<S> emptyPredicate;
+
+    /**
+     * @param segmentFactory 创建空段
+     * @param emptyPredicate 段是否为空
+     */
+    SpaceSegmentMap(Supplier<S> segmentFactory, Predicate<S> emptyPredicate) {
+        this.segmentFactory = segmentFactory;
+        this.emptyPredicate = emptyPredicate;
+    }
+
+    /**
+     * 获取文档所在空间的段（不存在时创建），并记录文档所在空间
+     * @param docId   文档 id
+     * @param spaceId 空间 id，公共图库为 null
+     * @return 段
+     */
+    S getForAdd(int docId, Long spaceId) {
+        docSpaceMap.put(docId, spaceId);
+        return segmentMap.computeIfAbsent(spaceId, key -> segmentFactory.get());
+    }
+
+    /**
+     * 获取空间的段
+     * @param spaceId 空间 id，公共图库为 null
+     * @return 段，没有图片时返回 null
+     */
+    S get(Long spaceId) {
+        return segmentMap.get(spaceId);
+    }
+
+    /**
+     * 从文档所在的段中删除文档，段为空时移除
+     * @param docId   文档 id
+     * @param remover 从段中删除文档的逻辑
+     */
+    void remove(int docId, Consumer<S> remover) {
+        if (!docSpaceMap.containsKey(docId)) {
+            return;
+        }
+        Long spaceId = docSpaceMap.remove(docId);
+        S segment = segmentMap.get(spaceId);
+        remover.accept(segment);
+        if (emptyPredicate.test(segment)) {
+            segmentMap.remove(spaceId);
+        }
+    }
+
+    void clear() {
+        segmentMap.clear();
+        docSpaceMap.clear();
+    }
+}
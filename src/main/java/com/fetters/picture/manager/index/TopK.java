@@ -0,0 +1,115 @@
+package com.fetters.picture.manager.index;
+
+/**
+ * 有界 Top-K：保留距离最小的 K 个图片 id（颜色搜图为色差，以图搜图为汉明距离，调色板搜图为匹配程度换算的排序值）
+ * <p>
+ * 以大顶堆保存当前的 K 个结果，堆顶为其中距离最大者，扫描时只需与堆顶比较，整个扫描过程不分配对象。
+ * 距离相同时 id 较小者优先，保证结果稳定。非线程安全。
+ */
+public class TopK {
+
+    private final int k;
+
+    private final double[] distances;
+
+    private final long[] ids;
+
+    private int size;
+
+    public TopK(int k) {
+        this.k = k;
+        this.distances = new double[k];
+        this.ids = new long[k];
+    }
+
+    /**
+     * 加入一个候选
+     * @param id       图片 id
+     * @param distance 距离，越小越相似
+     */
+    public void offer(long id, double distance) {
+        if (size < k) {
+            distances[size] = distance;
+            ids[size] = id;
+            siftUp(size++);
+        } else if (k > 0 && isBefore(distance, id, distances[0], ids[0])) {
+            distances[0] = distance;
+            ids[0] = id;
+            siftDown(0);
+        }
+    }
+
+    /**
+     * 堆满后新候选需要小于该距离才能进入结果，可用于提前剪枝
+     * @return 当前第 K 个结果的距离；未满时返回正无穷
+     */
+    public double threshold() {
+        return size < k ? Double.POSITIVE_INFINITY : distances[0];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 按距离从小到大输出图片 id（会清空堆）
+     * @return 图片 id
+     */
+    public long[] toSortedIds() {
+        long[] result = new long[size];
+        for (int i = size - 1; i >= 0; i--) {
+            result[i] = ids[0];
+            size--;
+            distances[0] = distances[size];
+            ids[0] = ids[size];
+            siftDown(0);
+        }
+        return result;
+    }
+
+    /**
+     * (distance1, id1) 是否排在 (distance2, id2) 之前
+     */
+    private static boolean isBefore(double distance1, long id1, double distance2, long id2) {
+        return distance1 < distance2 || (distance1 == distance2 && id1 < id2);
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!isBefore(distances[parent], ids[parent], distances[index], ids[index])) {
+                break;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int left = 2 * index + 1;
+            if (left >= size) {
+                break;
+            }
+            int largest = left;
+            int right = left + 1;
+            if (right < size && isBefore(distances[left], ids[left], distances[right], ids[right])) {
+                largest = right;
+            }
+            if (!isBefore(distances[index], ids[index], distances[largest], ids[largest])) {
+                break;
+            }
+            swap(index, largest);
+            index = largest;
+        }
+    }
+
+    private void swap(int i, int j) {
+        double distance = distances[i];
+        distances[i] = distances[j];
+        distances[j] = distance;
+        long id = ids[i];
+        ids[i] = ids[j];
+        ids[j] = id;
+    }
+}
@@ -0,0 +1,69 @@
+package com.fetters.picture.manager.upload;
+
+import cn.hutool.core.thread.ExecutorBuilder;
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import com.fetters.picture.model.dto.file.PictureFeature;
+import com.fetters.picture.utils.ColorPaletteUtils;
+import com.fetters.picture.utils.ImageHashUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 图片特征提取（调色板、感知哈希）
+ * <p>
+ * 上传时在有界线程池中异步解码本地临时文件，一次缩小解码同时提取调色板和感知哈希，不阻塞上传请求；任务接管临时文件，完成后负责删除。
+ * 线程池队列已满时放弃提取（图片只有主色调，没有调色板和感知哈希），由调用方照常删除临时文件。
+ */
+@Slf4j
+@Component
+public class PictureFeatureExtractor {
+
+    /**
+     * 提取线程池，解码为 CPU 密集型任务，线程数不超过 CPU 核数的一半
+     */
+    private final ExecutorService FEATURE_EXECUTOR = ExecutorBuilder.create()
+            .setCorePoolSize(Math.max(1, Runtime.getRuntime().availableProcessors() / 2))
+            .setMaxPoolSize(Math.max(1, Runtime.getRuntime().availableProcessors() / 2))
+            .setWorkQueue(new LinkedBlockingQueue<>(200))
+            .setThreadFactory(ThreadFactoryBuilder.create().setNamePrefix("picture-feature-").setDaemon(true).build())
+            .build();
+
+    /**
+     * 提交提取任务
+     * @param file 本地临时文件，提交成功后由任务负责删除
+     * @return 图片特征（无法解码时调色板为空串、感知哈希为空）；线程池已满时返回 null，临时文件仍由调用方删除
+     */
+    public CompletableFuture<PictureFeature> extractAsync(File file) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                PictureFeature pictureFeature = new PictureFeature();
+                pictureFeature.setPicPalette("");
+                try {
+                    BufferedImage image = ColorPaletteUtils.readSampled(file);
+                    if (image != null) {
+                        pictureFeature.setPicPalette(ColorPaletteUtils.encode(
+                                ColorPaletteUtils.extract(image, ColorPaletteUtils.MAX_COLORS)));
+                        pictureFeature.setPicHash(ImageHashUtils.dHash(image));
+                    }
+                } catch (Exception e) {
+                    log.warn("图片特征提取失败, filepath = {}", file.getAbsolutePath(), e);
+                } finally {
+                    if (!file.delete()) {
+                        log.error("file delete error, filepath = {}", file.getAbsolutePath());
+                    }
+                }
+                return pictureFeature;
+            }, FEATURE_EXECUTOR);
+        } catch (RejectedExecutionException e) {
+            log.warn("特征提取线程池已满，跳过图片特征提取");
+            return null;
+        }
+    }
+}
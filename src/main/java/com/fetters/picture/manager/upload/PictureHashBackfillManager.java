@@ -0,0 +1,215 @@
+package com.fetters.picture.manager.upload;
+
+import cn.hutool.core.thread.ExecutorBuilder;
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import cn.hutool.core.thread.ThreadUtil;
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.http.HttpUtil;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.fetters.picture.manager.index.PictureIndexManager;
+import com.fetters.picture.mapper.PictureMapper;
+import com.fetters.picture.model.entity.Picture;
+import com.fetters.picture.utils.ImageHashUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 图片感知哈希补算
+ * <p>
+ * 上传时才提取感知哈希，此前上传的图片没有哈希，不会出现在以图搜图结果中。应用启动后在后台线程中按 id 分批补算：
+ * 让对象存储将图片缩小并转为 PNG 后下载解码，写入哈希并更新索引。多个节点通过 Redis 锁保证只有一个节点执行。
+ * <p>
+ * 以图搜图的原图没有哈希时，在单独的线程中优先补算该图片，不阻塞搜索请求。
+ */
+@Slf4j
+@Component
+public class PictureHashBackfillManager {
+
+    /**
+     * 补算任务锁，持有锁的节点每批续期
+     */
+    private static final String LOCK_KEY = "picture:hash:backfill:lock";
+
+    private static final long LOCK_EXPIRE_MINUTES = 10L;
+
+    /**
+     * 每批补算的图片数
+     */
+    private static final int BATCH_SIZE = 100;
+
+    /**
+     * 下载缩略图的超时时间
+     */
+    private static final int DOWNLOAD_TIMEOUT_MILLIS = 5000;
+
+    /**
+     * 让对象存储缩小并转为 PNG（ImageIO 不支持 webp），只用于计算哈希
+     */
+    private static final String HASH_IMAGE_RULE = "?imageMogr2/thumbnail/256x256>/format/png";
+
+    @Resource
+    private PictureMapper pictureMapper;
+
+    @Resource
+    private PictureIndexManager pictureIndexManager;
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Value("${picture.hash.backfill.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * 单张补算线程池，队列满时放弃（由后台补算兜底）
+     */
+    private final ExecutorService SINGLE_EXECUTOR = ExecutorBuilder.create()
+            .setCorePoolSize(1)
+            .setMaxPoolSize(1)
+            .setWorkQueue(new LinkedBlockingQueue<>(100))
+            .setThreadFactory(ThreadFactoryBuilder.create().setNamePrefix("picture-hash-").setDaemon(true).build())
+            .build();
+
+    /**
+     * 已提交单张补算的图片，避免重复提交
+     */
+    private final Set<Long> pendingIds = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 应用启动后在后台补算，不阻塞启动
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (!enabled) {
+            return;
+        }
+        ThreadUtil.newThread(this::backfillAll, "picture-hash-backfill", true).start();
+    }
+
+    /**
+     * 提交单张图片的补算（以图搜图的原图没有哈希时调用）
+     * @param picture 图片
+     */
+    public void submit(Picture picture) {
+        if (!pendingIds.add(picture.getId())) {
+            return;
+        }
+        try {
+            SINGLE_EXECUTOR.execute(() -> {
+                try {
+                    Long picHash = computeHash(picture);
+                    if (picHash != null && updateHash(picture, picHash)) {
+                        pictureIndexManager.refresh(Collections.singletonList(picture.getId()));
+                    }
+                } finally {
+                    pendingIds.remove(picture.getId());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pendingIds.remove(picture.getId());
+        }
+    }
+
+    /**
+     * 按 id 顺序分批补算全部没有哈希的图片
+     */
+    private void backfillAll() {
+        String lockValue = IdUtil.fastSimpleUUID();
+        Boolean locked = stringRedisTemplate.opsForValue()
+                .setIfAbsent(LOCK_KEY, lockValue, LOCK_EXPIRE_MINUTES, TimeUnit.MINUTES);
+        if (!Boolean.TRUE.equals(locked)) {
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+        long lastId = 0L;
+        int count = 0;
+        int failCount = 0;
+        try {
+            while (true) {
+                List<Picture> pictureList = pictureMapper.selectList(new LambdaQueryWrapper<Picture>()
+                        .select(Picture::getId, Picture::getUrl)
+                        .isNull(Picture::getPicHash)
+                        .gt(Picture::getId, lastId)
+                        .orderByAsc(Picture::getId)
+                        .last("limit " + BATCH_SIZE));
+                if (pictureList.isEmpty()) {
+                    break;
+                }
+                List<Long> updatedIdList = new ArrayList<>();
+                for (Picture picture : pictureList) {
+                    Long picHash = computeHash(picture);
+                    if (picHash == null) {
+                        failCount++;
+                    } else if (updateHash(picture, picHash)) {
+                        updatedIdList.add(picture.getId());
+                    }
+                }
+                pictureIndexManager.refresh(updatedIdList);
+                count += updatedIdList.size();
+                lastId = pictureList.get(pictureList.size() - 1).getId();
+                stringRedisTemplate.expire(LOCK_KEY, LOCK_EXPIRE_MINUTES, TimeUnit.MINUTES);
+            }
+            if (count > 0 || failCount > 0) {
+                log.info("图片感知哈希补算完成, count = {}, failCount = {}, cost = {}ms",
+                        count, failCount, System.currentTimeMillis() - startTime);
+            }
+        } catch (Exception e) {
+            log.error("图片感知哈希补算失败", e);
+        } finally {
+            if (lockValue.equals(stringRedisTemplate.opsForValue().get(LOCK_KEY))) {
+                stringRedisTemplate.delete(LOCK_KEY);
+            }
+        }
+    }
+
+    /**
+     * 下载缩小后的图片并计算感知哈希
+     * @return 感知哈希，下载或解码失败时返回 null
+     */
+    private Long computeHash(Picture picture) {
+        if (StrUtil.isBlank(picture.getUrl())) {
+            return null;
+        }
+        try {
+            byte[] bytes = HttpUtil.createGet(picture.getUrl() + HASH_IMAGE_RULE)
+                    .timeout(DOWNLOAD_TIMEOUT_MILLIS)
+                    .execute()
+                    .bodyBytes();
+            BufferedImage image = ImageIO.read(new ByteArrayInputStream(bytes));
+            return image == null ? null : ImageHashUtils.dHash(image);
+        } catch (Exception e) {
+            log.warn("图片感知哈希计算失败, pictureId = {}", picture.getId(), e);
+            return null;
+        }
+    }
+
+    /**
+     * 写入哈希，只更新仍没有哈希且地址未变的图片（期间重新上传的图片由上传流程写入，不能用旧图的哈希覆盖）
+     */
+    private boolean updateHash(Picture picture, long picHash) {
+        return pictureMapper.update(null, new LambdaUpdateWrapper<Picture>()
+                .eq(Picture::getId, picture.getId())
+                .eq(Picture::getUrl, picture.getUrl())
+                .isNull(Picture::getPicHash)
+                .set(Picture::getPicHash, picHash)) > 0;
+    }
+}
@@ -9,6 +9,7 @@ import com.fetters.picture.config.CosClientConfig;
 import com.fetters.picture.exception.BusinessException;
 import com.fetters.picture.exception.ErrorCode;
 import com.fetters.picture.manager.CosManager;
+import com.fetters.picture.model.dto.file.PictureFeature;
 import com.fetters.picture.model.dto.file.UploadPictureResult;
 import com.qcloud.cos.model.PutObjectResult;
 import com.qcloud.cos.model.ciModel.persistence.CIObject;
@@ -20,6 +21,7 @@ import javax.annotation.Resource;
 import java.io.File;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 图片上传模板
@@ -33,6 +35,9 @@ public abstract class PictureUploadTemplate {
     @Resource
     private CosManager cosManager;
 
+    @Resource
+    private PictureFeatureExtractor pictureFeatureExtractor;
+
     /**
      * 上传图片
      * @param inputSource      文件
@@ -62,6 +67,7 @@ public abstract class PictureUploadTemplate {
             // 获取到图片处理结果
             ProcessResults processResults = putObjectResult.getCiUploadResult().getProcessResults();
             List<CIObject> objectList = processResults.getObjectList();
+            UploadPictureResult uploadPictureResult;
             if (CollUtil.isNotEmpty(objectList)) {
                 // 获取压缩之后得到的文件信息
                 CIObject compressedCiObject = objectList.get(0);
@@ -72,14 +78,22 @@ public abstract class PictureUploadTemplate {
                     thumbnailCiObject = objectList.get(1);
                 }
                 // 封装压缩图的返回结果
-                return buildResult(originalFilename, uploadPath, compressedCiObject, thumbnailCiObject, imageInfo);
+                uploadPictureResult = buildResult(originalFilename, uploadPath, compressedCiObject, thumbnailCiObject, imageInfo);
+            } else {
+                uploadPictureResult = buildResult(originalFilename, file, uploadPath, imageInfo);
+            }
+            // 6. 异步提取调色板和感知哈希，提交成功后临时文件由提取任务删除
+            CompletableFuture<PictureFeature> pictureFeatureFuture = pictureFeatureExtractor.extractAsync(file);
+            if (pictureFeatureFuture != null) {
+                uploadPictureResult.setPictureFeatureFuture(pictureFeatureFuture);
+                file = null;
             }
-            return buildResult(originalFilename, file, uploadPath, imageInfo);
+            return uploadPictureResult;
         } catch (Exception e) {
             log.error("图片上传到对象存储失败", e);
             throw new BusinessException(ErrorCode.SYSTEM_ERROR, "上传失败");
         } finally {
-            // 6. 临时文件清理
+            // 7. 临时文件清理
             this.deleteTempFile(file);
         }
     }
@@ -0,0 +1,20 @@
+package com.fetters.picture.model.dto.file;
+
+import lombok.Data;
+
+/**
+ * 上传时从图片内容异步提取的特征
+ */
+@Data
+public class PictureFeature {
+
+    /**
+     * 图片调色板（编码后的字符串，无法解码时为空串）
+     */
+    private String picPalette;
+
+    /**
+     * 图片感知哈希（dHash，无法解码时为空）
+     */
+    private Long picHash;
+}
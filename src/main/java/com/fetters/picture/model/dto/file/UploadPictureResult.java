@@ -2,6 +2,8 @@ package com.fetters.picture.model.dto.file;
 
 import lombok.Data;
 
+import java.util.concurrent.CompletableFuture;
+
 @Data
 public class UploadPictureResult {
 
@@ -54,4 +56,9 @@ public class UploadPictureResult {
      * 图片主色调
      */
     private String picColor;
+
+    /**
+     * 图片调色板和感知哈希（异步提取，为空表示未提交提取任务）
+     */
+    private CompletableFuture<PictureFeature> pictureFeatureFuture;
 }
@@ -0,0 +1,23 @@
+package com.fetters.picture.model.dto.picture;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.io.Serializable;
+
+/**
+ * 图片游标查询请求（按 排序字段 + id 定位，适用于无限滚动）
+ * <p>
+ * 筛选条件与 {@link PictureQueryRequest} 相同，current 会被忽略，且不查询总数
+ */
+@EqualsAndHashCode(callSuper = true)
+@Data
+public class PictureCursorQueryRequest extends PictureQueryRequest implements Serializable {
+
+    /**
+     * 游标（上一页返回的 nextCursor，为空表示查询第一页）
+     */
+    private String cursor;
+
+    private static final long serialVersionUID = 1L;
+}
@@ -40,6 +40,11 @@ public class PictureQueryRequest extends PageRequest implements Serializable {
      */
     private List<String> tags;
 
+    /**
+     * 标签匹配方式：false-包含全部标签（默认）; true-包含任一标签
+     */
+    private boolean anyTag;
+
     /**
      * 文件体积
      */
@@ -115,5 +120,10 @@ public class PictureQueryRequest extends PageRequest implements Serializable {
      */
     private Date endEditTime;
 
+    /**
+     * 需要返回的字段（为空时返回全部字段），如 id、thumbnailUrl、picColor、name，user 表示关联的用户信息
+     */
+    private List<String> fields;
+
     private static final long serialVersionUID = 1L;
 }
@@ -20,5 +20,10 @@ public class SearchPictureByColorRequest implements Serializable {
      */
     private Long spaceId;
 
+    /**
+     * 色差阈值（CIEDE2000），设置后返回色差不超过该值的图片，为空时返回最相似的若干张
+     */
+    private Double maxDeltaE;
+
     private static final long serialVersionUID = 1L;
 }
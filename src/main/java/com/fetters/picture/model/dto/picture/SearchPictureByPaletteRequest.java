@@ -0,0 +1,30 @@
+package com.fetters.picture.model.dto.picture;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 调色板搜图请求
+ */
+@Data
+public class SearchPictureByPaletteRequest implements Serializable {
+
+    /**
+     * 目标颜色（最多 5 种，如 0x1E90FF、#FFFFFF），图片需要包含每一种
+     */
+    private List<String> colors;
+
+    /**
+     * 空间 id
+     */
+    private Long spaceId;
+
+    /**
+     * 色差阈值（CIEDE2000），为空时使用默认值
+     */
+    private Double maxDeltaE;
+
+    private static final long serialVersionUID = 1L;
+}
@@ -17,6 +17,11 @@ public class SearchPictureByPictureRequest implements Serializable {
      */
     private Long pictureId;
 
+    /**
+     * 感知哈希的最大汉明距离（0 ~ 16），为空时使用默认值
+     */
+    private Integer maxDistance;
+
     private static final long serialVersionUID = 1L;
 }
 
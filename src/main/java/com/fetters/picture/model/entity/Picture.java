@@ -95,6 +95,16 @@ public class Picture implements Serializable {
      */
     private String picColor;
 
+    /**
+     * 图片调色板（最多 5 种颜色，每种 RRGGBB + 占比 WW，十六进制）
+     */
+    private String picPalette;
+
+    /**
+     * 图片感知哈希（64 位 dHash）
+     */
+    private Long picHash;
+
     /**
      * 创建用户 id
      */
@@ -0,0 +1,35 @@
+package com.fetters.picture.model.vo;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * 图片分面统计（筛选条件下各分类、格式、标签的图片数，按数量降序）
+ */
+@Data
+public class PictureFacetVO implements Serializable {
+
+    /**
+     * 符合筛选条件的图片总数
+     */
+    private long total;
+
+    /**
+     * 分类 => 图片数
+     */
+    private Map<String, Long> categoryCounts;
+
+    /**
+     * 图片格式 => 图片数
+     */
+    private Map<String, Long> formatCounts;
+
+    /**
+     * 标签 => 图片数（只返回数量最多的部分标签，索引未就绪时为空）
+     */
+    private Map<String, Long> tagCounts;
+
+    private static final long serialVersionUID = 1L;
+}
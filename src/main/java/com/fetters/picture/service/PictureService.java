@@ -4,9 +4,13 @@ import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.IService;
 import com.fetters.picture.api.aliyunai.model.CreateOutPaintingTaskResponse;
+import com.fetters.picture.api.imagesearch.model.ImageSearchResult;
+import com.fetters.picture.manager.cache.PictureCacheEntry;
 import com.fetters.picture.model.dto.picture.*;
 import com.fetters.picture.model.entity.Picture;
 import com.fetters.picture.model.entity.User;
+import com.fetters.picture.model.vo.CursorPageVO;
+import com.fetters.picture.model.vo.PictureFacetVO;
 import com.fetters.picture.model.vo.PictureVO;
 
 import javax.servlet.http.HttpServletRequest;
@@ -44,6 +48,14 @@ public interface PictureService extends IService<Picture> {
      */
     PictureVO getPictureVO(Picture picture, HttpServletRequest request);
 
+    /**
+     * 根据 id 获取图片封装类（优先从缓存获取，并校验空间权限）
+     * @param id      图片 id
+     * @param request 请求
+     * @return 图片封装类
+     */
+    PictureVO getPictureVOById(long id, HttpServletRequest request);
+
     /**
      * 分页获取图片封装
      * @param picturePage 图片分页
@@ -51,6 +63,13 @@ public interface PictureService extends IService<Picture> {
      */
     Page<PictureVO> getPictureVOPage(Page<Picture> picturePage);
 
+    /**
+     * 分页获取图片（总数优先从缓存获取）
+     * @param pictureQueryRequest 图片查询请求
+     * @return 图片分页
+     */
+    Page<Picture> listPictureByPage(PictureQueryRequest pictureQueryRequest);
+
     /**
      * 校验图片
      * @param picture 图片
@@ -114,6 +133,46 @@ public interface PictureService extends IService<Picture> {
      */
     Page<PictureVO> listPictureVOByPage(PictureQueryRequest pictureQueryRequest, HttpServletRequest request);
 
+    /**
+     * 获取图片列表的响应体（用户使用，缓存中预先序列化好的 BaseResponse JSON）
+     * @param pictureQueryRequest 图片查询请求
+     * @param request             请求
+     * @return 响应体缓存条目
+     */
+    PictureCacheEntry listPictureVOByPageResponseBody(PictureQueryRequest pictureQueryRequest, HttpServletRequest request);
+
+    /**
+     * 根据已构建的缓存 key 获取图片列表的响应体（用户使用）
+     * @param cacheKey            缓存 key（见 {@link #getListCacheKey}）
+     * @param pictureQueryRequest 图片查询请求（已归一化）
+     * @return 响应体缓存条目
+     */
+    PictureCacheEntry listPictureVOByPageResponseBody(String cacheKey, PictureQueryRequest pictureQueryRequest);
+
+    /**
+     * 校验分页查询参数和空间权限，并构建分页缓存 key（key 中带版本号，可用于生成 ETag）
+     * @param pictureQueryRequest 图片查询请求（会被归一化）
+     * @param request             请求
+     * @return 缓存 key
+     */
+    String getListCacheKey(PictureQueryRequest pictureQueryRequest, HttpServletRequest request);
+
+    /**
+     * 获取图片分面统计（用户使用，图库侧边栏各分类、格式、标签的数量）
+     * @param pictureQueryRequest 图片查询请求
+     * @param request             请求
+     * @return 分面统计
+     */
+    PictureFacetVO getPictureFacet(PictureQueryRequest pictureQueryRequest, HttpServletRequest request);
+
+    /**
+     * 游标分页获取图片列表（用户使用，按 排序字段 + id 定位下一页，不查询总数）
+     * @param pictureCursorQueryRequest 图片游标查询请求
+     * @param request                   请求
+     * @return 图片游标分页
+     */
+    CursorPageVO<PictureVO> listPictureVOByCursor(PictureCursorQueryRequest pictureCursorQueryRequest, HttpServletRequest request);
+
     /**
      * 删除空间下图片（删除空间事件调用）
      * @param spaceId   空间ID
@@ -122,18 +181,63 @@ public interface PictureService extends IService<Picture> {
     void deletePicturesBySpaceId(Long spaceId, User loginUser);
 
     /**
-     * 清空所有缓存
+     * 清理图片所在范围的缓存（公共图库或指定空间）
+     * @param spaceId 空间ID，为空表示公共图库
+     */
+    void clearCache(Long spaceId);
+
+    /**
+     * 清理图片详情缓存（图片编辑、审核、删除、重新上传后调用）
+     * @param pictureId 图片 id
+     */
+    void clearDetailCache(Long pictureId);
+
+    /**
+     * 更新图片内存索引（图片新增、修改、审核、删除后调用）
+     * @param pictureId 图片 id
+     */
+    void refreshIndex(Long pictureId);
+
+    /**
+     * 图片写操作影响分页结果时调用：先更新图片内存索引，再清理图片所在范围的缓存
+     * @param spaceId       空间ID，为空表示公共图库
+     * @param pictureIdList 图片 id
+     */
+    void refreshIndexAndClearCache(Long spaceId, List<Long> pictureIdList);
+
+    /**
+     * 清空所有缓存（缓存版本号自增，旧缓存随 TTL 过期）
      */
     void clearAllCache();
 
     /**
      * 根据图片颜色搜索图片
-     * @param spaceId   空间ID
+     * @param spaceId   空间ID，为空时搜索公共图库
      * @param picColor  图片颜色
+     * @param maxDeltaE 色差阈值，为空时返回最相似的若干张
+     * @param loginUser 登录用户
+     * @return 图片列表
+     */
+    List<PictureVO> searchPictureByColor(Long spaceId, String picColor, Double maxDeltaE, User loginUser);
+
+    /**
+     * 根据调色板搜索图片（图片需要包含每一种目标颜色）
+     * @param spaceId   空间ID，为空时搜索公共图库
+     * @param colors    目标颜色
+     * @param maxDeltaE 色差阈值，为空时使用默认值
      * @param loginUser 登录用户
      * @return 图片列表
      */
-    List<PictureVO> searchPictureByColor(Long spaceId, String picColor, User loginUser);
+    List<PictureVO> searchPictureByPalette(Long spaceId, List<String> colors, Double maxDeltaE, User loginUser);
+
+    /**
+     * 以图搜图：在图片所在范围（公共图库或私有空间）内按感知哈希搜索近似图片
+     * @param pictureId   原图 id
+     * @param maxDistance 最大汉明距离，为空时使用默认值
+     * @param loginUser   登录用户
+     * @return 搜索结果，按汉明距离从小到大排序；原图还没有感知哈希时提交后台补算，本次没有图库内的结果
+     */
+    List<ImageSearchResult> searchPictureByPicture(Long pictureId, Integer maxDistance, User loginUser);
 
     /**
      * 编辑图片（批量）
@@ -34,6 +34,18 @@ public interface SpaceService extends IService<Space> {
      */
     QueryWrapper<Space> getQueryWrapper(SpaceQueryRequest spaceQueryRequest);
 
+    /**
+     * 分页获取空间（总数优先从缓存获取）
+     * @param spaceQueryRequest 空间查询请求
+     * @return 空间分页
+     */
+    Page<Space> listSpaceByPage(SpaceQueryRequest spaceQueryRequest);
+
+    /**
+     * 使空间分页总数缓存失效（新增、修改、删除空间后调用）
+     */
+    void clearCountCache();
+
     /**
      * 获取空间封装类
      * @param space   空间
@@ -1,6 +1,7 @@
 package com.fetters.picture.service;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.fetters.picture.model.dto.user.UserQueryRequest;
 import com.fetters.picture.model.entity.User;
 import com.baomidou.mybatisplus.extension.service.IService;
@@ -84,6 +85,18 @@ public interface UserService extends IService<User> {
      */
     QueryWrapper<User> getQueryWrapper(UserQueryRequest userQueryRequest);
 
+    /**
+     * 分页获取用户（总数优先从缓存获取）
+     * @param userQueryRequest 用户查询条件
+     * @return 用户分页
+     */
+    Page<User> listUserByPage(UserQueryRequest userQueryRequest);
+
+    /**
+     * 使用户分页总数缓存失效（新增、修改、删除用户后调用）
+     */
+    void clearCountCache();
+
     /**
      * 判断用户是否为管理员
      * @param user
@@ -3,7 +3,6 @@ package com.fetters.picture.service.impl;
 import cn.hutool.core.bean.BeanUtil;
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.util.ObjUtil;
-import cn.hutool.core.util.RandomUtil;
 import cn.hutool.core.util.StrUtil;
 import cn.hutool.json.JSONUtil;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
@@ -12,50 +11,66 @@ import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.fetters.picture.api.aliyunai.AliYunAiApi;
 import com.fetters.picture.api.aliyunai.model.CreateOutPaintingTaskRequest;
 import com.fetters.picture.api.aliyunai.model.CreateOutPaintingTaskResponse;
+import com.fetters.picture.api.imagesearch.ImageSearchApiFacade;
+import com.fetters.picture.api.imagesearch.model.ImageSearchResult;
+import com.fetters.picture.constant.PictureConstant;
 import com.fetters.picture.exception.BusinessException;
 import com.fetters.picture.exception.ErrorCode;
 import com.fetters.picture.exception.ThrowUtils;
 import com.fetters.picture.manager.CosManager;
+import com.fetters.picture.manager.cache.PageCountManager;
+import com.fetters.picture.manager.cache.PictureCacheEntry;
+import com.fetters.picture.manager.cache.PictureCacheKeyBuilder;
+import com.fetters.picture.manager.cache.PictureDetailCacheManager;
+import com.fetters.picture.manager.cache.PictureListCacheManager;
+import com.fetters.picture.manager.cache.UserVOCacheManager;
+import com.fetters.picture.manager.index.PictureColorIndex;
+import com.fetters.picture.manager.index.PictureFacetIndex;
+import com.fetters.picture.manager.index.PictureHashIndex;
+import com.fetters.picture.manager.index.PictureIndexManager;
+import com.fetters.picture.manager.index.PicturePaletteIndex;
+import com.fetters.picture.manager.index.TopK;
 import com.fetters.picture.manager.upload.FilePictureUpload;
+import com.fetters.picture.manager.upload.PictureHashBackfillManager;
 import com.fetters.picture.manager.upload.PictureUploadTemplate;
 import com.fetters.picture.manager.upload.UrlPictureUpload;
 import com.fetters.picture.mapper.PictureMapper;
+import com.fetters.picture.model.dto.file.PictureFeature;
 import com.fetters.picture.model.dto.file.UploadPictureResult;
 import com.fetters.picture.model.dto.picture.*;
 import com.fetters.picture.model.entity.Picture;
 import com.fetters.picture.model.entity.Space;
 import com.fetters.picture.model.entity.User;
 import com.fetters.picture.model.enums.PictureReviewStatusEnum;
+import com.fetters.picture.model.vo.CursorPageVO;
+import com.fetters.picture.model.vo.PictureFacetVO;
 import com.fetters.picture.model.vo.PictureVO;
 import com.fetters.picture.model.vo.UserVO;
 import com.fetters.picture.service.PictureService;
 import com.fetters.picture.service.SpaceService;
 import com.fetters.picture.service.UserService;
+import com.fetters.picture.utils.ColorPaletteUtils;
 import com.fetters.picture.utils.ColorSimilarUtils;
-import com.github.benmanes.caffeine.cache.Cache;
-import com.github.benmanes.caffeine.cache.Caffeine;
+import com.fetters.picture.utils.ImageHashUtils;
+import com.fetters.picture.utils.PictureCursorUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
 import org.springframework.beans.BeanUtils;
-import org.springframework.data.redis.core.Cursor;
-import org.springframework.data.redis.core.ScanOptions;
-import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.support.TransactionTemplate;
-import org.springframework.util.DigestUtils;
 
 import javax.annotation.Resource;
 import javax.servlet.http.HttpServletRequest;
-import java.awt.*;
 import java.io.IOException;
 import java.util.*;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -80,9 +95,6 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture>
     @Resource
     private UrlPictureUpload urlPictureUpload;
 
-    @Resource
-    private StringRedisTemplate stringRedisTemplate;
-
     @Resource
     private CosManager cosManager;
 
@@ -92,15 +104,29 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture>
     @Resource
     private AliYunAiApi aliYunAiApi;
 
+    @Resource
+    private PictureListCacheManager pictureListCacheManager;
+
+    @Resource
+    private PageCountManager pageCountManager;
+
+    @Resource
+    private PictureDetailCacheManager pictureDetailCacheManager;
+
+    @Resource
+    private UserVOCacheManager userVOCacheManager;
+
+    @Resource
+    private PictureIndexManager pictureIndexManager;
+
+    @Resource
+    private PictureHashBackfillManager pictureHashBackfillManager;
+
     /**
-     * 本地缓存
+     * 图库中没有近似图片时是否调用外部以图搜图
      */
-    private final Cache<String, String> LOCAL_CACHE =
-            Caffeine.newBuilder().initialCapacity(1024)
-                    .maximumSize(10000L)
-                    // 缓存 5 分钟移除
-                    .expireAfterWrite(5L, TimeUnit.MINUTES)
-                    .build();
+    @Value("${picture.search.external-fallback:false}")
+    private boolean externalSearchFallback;
 
     /**
      * 上传图片方法
@@ -188,6 +214,8 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture>
         picture.setPicScale(uploadPictureResult.getPicScale());
         picture.setPicFormat(uploadPictureResult.getPicFormat());
         picture.setPicColor(uploadPictureResult.getPicColor());
+        // 调色板和感知哈希异步提取，重新上传时先清空旧图的调色板
+        picture.setPicPalette("");
         picture.setUserId(loginUser.getId());
         // 抓图时可指定分类和标签
         picture.setCategory(pictureUploadRequest.getCategory());
@@ -208,6 +236,10 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture>
         transactionTemplate.execute(status -> {
             boolean result = this.saveOrUpdate(picture);
             ThrowUtils.throwIf(!result, ErrorCode.OPERATION_ERROR, "图片上传失败");
+            if (pictureId != null) {
+                // 重新上传时清空旧图的感知哈希（saveOrUpdate 不更新空字段）
+                this.lambdaUpdate().eq(Picture::getId, pictureId).set(Picture::getPicHash, null).update();
+            }
             if (finalSpaceId != null) {
                 if (pictureId != null) {
                     // 更新图片
@@ -228,6 +260,14 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture>
             }
             return picture;
         });
+        // 更新索引并清理图片所在范围的缓存
+        this.clearDetailCache(picture.getId());
+        this.refreshIndexAndClearCache(finalSpaceId, Collections.singletonList(picture.getId()));
+        // 调色板和感知哈希提取完成后写入
+        CompletableFuture<PictureFeature> pictureFeatureFuture = uploadPictureResult.getPictureFeatureFuture();
+        if (pictureFeatureFuture != null) {
+            pictureFeatureFuture.thenAccept(pictureFeature -> this.updatePictureFeature(picture.getId(), picture.getUrl(), pictureFeature));
+        }
         // 返回上传后的图片VO
         return PictureVO.objToVo(picture);
     }
@@ -266,11 +306,19 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture>
         Date startEditTime = pictureQueryRequest.getStartEditTime();
         Date endEditTime = pictureQueryRequest.getEndEditTime();
         boolean nullSpaceId = pictureQueryRequest.isNullSpaceId();
+        // 搜索词、标签先通过内存索引得到候选 id（走主键），再由 LIKE 精确过滤；索引未就绪或候选过多时只使用 LIKE
+        List<Long> candidateIdList = pictureIndexManager.findCandidateIds(pictureQueryRequest);
+        if (candidateIdList != null) {
+            if (candidateIdList.isEmpty()) {
+                queryWrapper.apply("1 = 0");
+            } else {
+                queryWrapper.in("id", candidateIdList);
+            }
+        }
         // 多字段中搜索
         if (StrUtil.isNotBlank(searchText)) {
-            queryWrapper.and(qw -> qw.like("name", searchText))
-                    .or()
-                    .like("introduction", searchText);
+            // 两个 LIKE 需要整体加括号，否则 OR 会与其他条件并列
+            queryWrapper.and(qw -> qw.like("name", searchText).or().like("introduction", searchText));
         }
 
         // 添加条件
@@ -295,11 +343,29 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture>
         queryWrapper.lt(ObjUtil.isNotEmpty(endEditTime), "editTime", endEditTime);
         // JSON 数组查询
         if (CollUtil.isNotEmpty(tags)) {
-            for (String tag : tags) {
-                queryWrapper.like("tags", "\"" + tag + "\"");
+            if (pictureQueryRequest.isAnyTag()) {
+                queryWrapper.and(qw -> tags.forEach(tag -> qw.or().like("tags", "\"" + tag + "\"")));
+            } else {
+                for (String tag : tags) {
+                    queryWrapper.like("tags", "\"" + tag + "\"");
+                }
             }
         }
         queryWrapper.orderBy(StrUtil.isNotEmpty(sortField), sortOrder.equals("ascend"), sortField);
+        // 字段投影：只查询需要返回的列，id 和排序字段（游标分页需要）始终查询
+        List<String> fields = pictureQueryRequest.getFields();
+        if (CollUtil.isNotEmpty(fields)) {
+            Set<String> columnSet = new LinkedHashSet<>();
+            columnSet.add("id");
+            for (String field : fields) {
+                ThrowUtils.throwIf(!PictureConstant.PICTURE_VO_FIELD_LIST.contains(field), ErrorCode.PARAMS_ERROR, "不支持的字段：" + field);
+                columnSet.add(PictureConstant.USER_FIELD.equals(field) ? "userId" : field);
+            }
+            if (PictureConstant.PICTURE_VO_FIELD_LIST.contains(sortField)) {
+                columnSet.add(sortField);
+            }
+            queryWrapper.select(columnSet.toArray(new String[0]));
+        }
         return queryWrapper;
     }
 
@@ -314,11 +380,23 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture>
         // 对象转封装类
         PictureVO pictureVO = PictureVO.objToVo(picture);
         // 关联查询用户信息
-        Long userId = picture.getUserId();
-        if (userId != null && userId > 0) {
-            User user = userService.getById(userId);
-            UserVO userVO = userService.getUserVO(user);
-            pictureVO.setUser(userVO);
+        pictureVO.setUser(userVOCacheManager.get(picture.getUserId()));
+        return pictureVO;
+    }
+
+    @Override
+    public PictureVO getPictureVOById(long id, HttpServletRequest request) {
+        // 读穿透缓存，图片不存在时也会短暂缓存空值
+        PictureVO pictureVO = pictureDetailCacheManager.get(id, pictureId -> {
+            Picture picture = this.getById(pictureId);
+            return picture == null ? null : this.getPictureVO(picture, request);
+        });
+        ThrowUtils.throwIf(pictureVO == null, ErrorCode.NOT_FOUND_ERROR);
+
+        // 空间权限校验
+        if (pictureVO.getSpaceId() != null) {
+            User loginUser = userService.getLoginUser(request);
+            this.checkPictureAuth(loginUser, PictureVO.voToObj(pictureVO));
         }
         return pictureVO;
     }
@@ -330,28 +408,52 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture>
      */
     @Override
     public Page<PictureVO> getPictureVOPage(Page<Picture> picturePage) {
+        return this.getPictureVOPage(picturePage, null);
+    }
+
+    /**
+     * 分页获取图片封装（按需返回字段）
+     * @param picturePage 图片分页
+     * @param fields      需要返回的字段，为空时返回全部字段
+     * @return 图片封装分页
+     */
+    private Page<PictureVO> getPictureVOPage(Page<Picture> picturePage, List<String> fields) {
         List<Picture> pictureList = picturePage.getRecords();
         Page<PictureVO> pictureVOPage = new Page<>(picturePage.getCurrent(), picturePage.getSize(), picturePage.getTotal());
         if (CollUtil.isEmpty(pictureList)) {
             return pictureVOPage;
         }
+        pictureVOPage.setRecords(this.getPictureVOList(pictureList, fields));
+        return pictureVOPage;
+    }
+
+    /**
+     * 获取图片封装列表（关联查询用户信息）
+     * @param pictureList 图片列表
+     * @param fields      需要返回的字段，为空时返回全部字段，未包含 user 时不关联查询用户信息
+     * @return 图片封装列表
+     */
+    private List<PictureVO> getPictureVOList(List<Picture> pictureList, List<String> fields) {
+        if (CollUtil.isEmpty(pictureList)) {
+            return new ArrayList<>();
+        }
         // 对象列表 => 封装对象列表
         List<PictureVO> pictureVOList = pictureList.stream().map(PictureVO::objToVo).collect(Collectors.toList());
-        // 1. 关联查询用户信息
+        if (CollUtil.isNotEmpty(fields)) {
+            // 未查询的标签列会被转换为空列表，置空以免与"没有标签"混淆
+            if (!fields.contains("tags")) {
+                pictureVOList.forEach(pictureVO -> pictureVO.setTags(null));
+            }
+            if (!fields.contains(PictureConstant.USER_FIELD)) {
+                return pictureVOList;
+            }
+        }
+        // 1. 关联查询用户信息（优先从缓存批量获取）
         Set<Long> userIdSet = pictureList.stream().map(Picture::getUserId).collect(Collectors.toSet());
-        Map<Long, List<User>> userIdUserListMap = userService.listByIds(userIdSet).stream()
-                .collect(Collectors.groupingBy(User::getId));
+        Map<Long, UserVO> userVOMap = userVOCacheManager.getAll(userIdSet);
         // 2. 填充信息
-        pictureVOList.forEach(pictureVO -> {
-            Long userId = pictureVO.getUserId();
-            User user = null;
-            if (userIdUserListMap.containsKey(userId)) {
-                user = userIdUserListMap.get(userId).get(0);
-            }
-            pictureVO.setUser(userService.getUserVO(user));
-        });
-        pictureVOPage.setRecords(pictureVOList);
-        return pictureVOPage;
+        pictureVOList.forEach(pictureVO -> pictureVO.setUser(userVOMap.get(pictureVO.getUserId())));
+        return pictureVOList;
     }
 
     /**
@@ -405,6 +507,9 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture>
         updatePicture.setReviewTime(new Date());
         boolean result = this.updateById(updatePicture);
         ThrowUtils.throwIf(!result, ErrorCode.OPERATION_ERROR);
+        // 审核状态变化影响图片是否可见，更新索引并清理图片所在范围的缓存
+        this.clearDetailCache(id);
+        this.refreshIndexAndClearCache(oldPicture.getSpaceId(), Collections.singletonList(id));
     }
 
     /**
@@ -572,6 +677,9 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture>
             }
             return true;
         });
+        // 更新索引并清理图片所在范围的缓存
+        this.clearDetailCache(pictureId);
+        this.refreshIndexAndClearCache(oldPicture.getSpaceId(), Collections.singletonList(pictureId));
 
         // 清理COS存储
         this.clearPictureFile(oldPicture);
@@ -603,11 +711,45 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture>
         // 操作数据库
         boolean result = this.updateById(picture);
         ThrowUtils.throwIf(!result, ErrorCode.OPERATION_ERROR);
+        // 更新索引并清理图片所在范围的缓存
+        this.clearDetailCache(picture.getId());
+        this.refreshIndexAndClearCache(oldPicture.getSpaceId(), Collections.singletonList(picture.getId()));
     }
 
     @Override
     public Page<PictureVO> listPictureVOByPage(PictureQueryRequest pictureQueryRequest, HttpServletRequest request) {
-        long current = pictureQueryRequest.getCurrent();
+        String cacheKey = this.getListCacheKey(pictureQueryRequest, request);
+        // 先从多级缓存中查询，未命中时合并并发请求，只由一个请求查询数据库并写入缓存
+        return pictureListCacheManager.get(cacheKey, () -> this.loadPictureVOPage(pictureQueryRequest));
+    }
+
+    @Override
+    public PictureCacheEntry listPictureVOByPageResponseBody(PictureQueryRequest pictureQueryRequest, HttpServletRequest request) {
+        String cacheKey = this.getListCacheKey(pictureQueryRequest, request);
+        return this.listPictureVOByPageResponseBody(cacheKey, pictureQueryRequest);
+    }
+
+    @Override
+    public PictureCacheEntry listPictureVOByPageResponseBody(String cacheKey, PictureQueryRequest pictureQueryRequest) {
+        return pictureListCacheManager.getResponseBody(cacheKey, () -> this.loadPictureVOPage(pictureQueryRequest));
+    }
+
+    @Override
+    public String getListCacheKey(PictureQueryRequest pictureQueryRequest, HttpServletRequest request) {
+        this.checkListPermission(pictureQueryRequest, request);
+        // 归一化查询条件，等价的查询使用同一个缓存 key
+        PictureCacheKeyBuilder.normalize(pictureQueryRequest);
+        // 构建缓存 key
+        String cacheScope = PictureListCacheManager.getScope(pictureQueryRequest.getSpaceId());
+        return pictureListCacheManager.buildCacheKey(cacheScope, pictureQueryRequest);
+    }
+
+    /**
+     * 校验用户分页查询参数和空间权限，公共图库只能查询审核通过的图片
+     * @param pictureQueryRequest 图片查询请求
+     * @param request             请求
+     */
+    private void checkListPermission(PictureQueryRequest pictureQueryRequest, HttpServletRequest request) {
         long size = pictureQueryRequest.getPageSize();
         // 限制爬虫
         ThrowUtils.throwIf(size > 100, ErrorCode.PARAMS_ERROR);
@@ -627,40 +769,124 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture>
                 throw new BusinessException(ErrorCode.NO_AUTH_ERROR, "没有空间权限");
             }
         }
+    }
 
-        // 构建缓存 key
-        String queryCondition = JSONUtil.toJsonStr(pictureQueryRequest);
-        String hashKey = DigestUtils.md5DigestAsHex(queryCondition.getBytes());
-        String cacheKey = "picture:listPictureVOByPage:" + hashKey;
-        // 1.先从本地缓存中查询
-        String cacheValue = LOCAL_CACHE.getIfPresent(cacheKey);
-        Page<PictureVO> cachePage = null;
-        if (cacheValue != null) {
-            cachePage = JSONUtil.toBean(cacheValue, Page.class);
-            return cachePage;
-        }
-        // 2.本地缓存未命中，则查询 redis 分布式缓存
-        ValueOperations<String, String> opsForValue = stringRedisTemplate.opsForValue();
-        cacheValue = opsForValue.get(cacheKey);
-        if (cacheValue != null) {
-            // 缓存命中，更新本地缓存
-            LOCAL_CACHE.put(cacheKey, cacheValue);
-            cachePage = JSONUtil.toBean(cacheValue, Page.class);
-            return cachePage;
-        }
-        // 3.缓存都未命中，查询数据库
-        Page<Picture> picturePage = this.page(new Page<>(current, size), this.getQueryWrapper(pictureQueryRequest));
+    /**
+     * 查询数据库获取图片封装分页（缓存未命中时调用）
+     * @param pictureQueryRequest 图片查询请求
+     * @return 图片封装分页
+     */
+    private Page<PictureVO> loadPictureVOPage(PictureQueryRequest pictureQueryRequest) {
+        Page<Picture> picturePage = this.listPictureByPage(pictureQueryRequest);
         // 获取封装类
-        Page<PictureVO> pictureVOPage = this.getPictureVOPage(picturePage);
-
-        // 4.更新缓存
-        // 更新 redis 缓存
-        cacheValue = JSONUtil.toJsonStr(pictureVOPage);
-        int expireTime = 300 + RandomUtil.randomInt(0, 300);
-        opsForValue.set(cacheKey, cacheValue, expireTime, TimeUnit.SECONDS);
-        // 更新本地缓存
-        LOCAL_CACHE.put(cacheKey, cacheValue);
-        return pictureVOPage;
+        return this.getPictureVOPage(picturePage, pictureQueryRequest.getFields());
+    }
+
+    @Override
+    public Page<Picture> listPictureByPage(PictureQueryRequest pictureQueryRequest) {
+        long current = pictureQueryRequest.getCurrent();
+        long size = pictureQueryRequest.getPageSize();
+        // 总数缓存范围：指定空间、公共图库，或不限范围（管理员查询全部图片）
+        Long spaceId = pictureQueryRequest.getSpaceId();
+        String countScope = spaceId == null && !pictureQueryRequest.isNullSpaceId()
+                ? PageCountManager.ALL_SCOPE : PictureListCacheManager.getScope(spaceId);
+        return pageCountManager.page(this, PageCountManager.PICTURE_REGION, countScope,
+                current, size, this.getQueryWrapper(pictureQueryRequest));
+    }
+
+    @Override
+    public PictureFacetVO getPictureFacet(PictureQueryRequest pictureQueryRequest, HttpServletRequest request) {
+        this.checkListPermission(pictureQueryRequest, request);
+        PictureCacheKeyBuilder.normalize(pictureQueryRequest);
+        // 统计与排序、返回字段无关
+        pictureQueryRequest.setSortField(null);
+        pictureQueryRequest.setFields(null);
+        // 优先使用内存索引，索引未就绪或条件不支持时使用数据库分组统计（不统计标签）
+        PictureFacetVO pictureFacetVO = pictureIndexManager.facet(pictureQueryRequest);
+        if (pictureFacetVO != null) {
+            return pictureFacetVO;
+        }
+        pictureFacetVO = new PictureFacetVO();
+        pictureFacetVO.setTotal(this.count(this.getQueryWrapper(pictureQueryRequest)));
+        pictureFacetVO.setCategoryCounts(this.countGroupBy(pictureQueryRequest, "category", PictureFacetIndex::normalizeCategory));
+        pictureFacetVO.setFormatCounts(this.countGroupBy(pictureQueryRequest, "picFormat", PictureFacetIndex::normalizeFormat));
+        pictureFacetVO.setTagCounts(new LinkedHashMap<>());
+        return pictureFacetVO;
+    }
+
+    /**
+     * 按列分组统计图片数，按数量降序
+     * <p>
+     * 取值按与内存索引相同的方式归一化后合并（数据库分组可能忽略大小写，返回的取值不确定），两种统计方式返回相同的 key
+     */
+    private Map<String, Long> countGroupBy(PictureQueryRequest pictureQueryRequest, String column,
+                                           Function<String, String> normalizer) {
+        QueryWrapper<Picture> queryWrapper = this.getQueryWrapper(pictureQueryRequest);
+        queryWrapper.select(column, "count(*) as count")
+                .isNotNull(column)
+                .groupBy(column);
+        Map<String, Long> countMap = new HashMap<>();
+        for (Map<String, Object> row : this.listMaps(queryWrapper)) {
+            String value = normalizer.apply(String.valueOf(row.get(column)));
+            if (value != null) {
+                countMap.merge(value, ((Number) row.get("count")).longValue(), Long::sum);
+            }
+        }
+        Map<String, Long> result = new LinkedHashMap<>();
+        countMap.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .forEach(entry -> result.put(entry.getKey(), entry.getValue()));
+        return result;
+    }
+
+    @Override
+    public CursorPageVO<PictureVO> listPictureVOByCursor(PictureCursorQueryRequest pictureCursorQueryRequest, HttpServletRequest request) {
+        ThrowUtils.throwIf(pictureCursorQueryRequest.getPageSize() <= 0, ErrorCode.PARAMS_ERROR);
+        this.checkListPermission(pictureCursorQueryRequest, request);
+        // 校验排序方式，默认按创建时间降序
+        String sortField = StrUtil.blankToDefault(pictureCursorQueryRequest.getSortField(), PictureCursorUtils.DEFAULT_SORT_FIELD);
+        ThrowUtils.throwIf(!PictureCursorUtils.SORT_FIELD_LIST.contains(sortField), ErrorCode.PARAMS_ERROR, "不支持的排序字段");
+        boolean isAsc = "ascend".equals(pictureCursorQueryRequest.getSortOrder());
+        String sortOrder = isAsc ? "ascend" : "descend";
+        pictureCursorQueryRequest.setSortField(sortField);
+        pictureCursorQueryRequest.setSortOrder(sortOrder);
+
+        // 筛选条件与普通分页相同，getQueryWrapper 中已按排序字段排序，再以 id 作为第二排序字段保证顺序唯一
+        QueryWrapper<Picture> queryWrapper = this.getQueryWrapper(pictureCursorQueryRequest);
+        if (!"id".equals(sortField)) {
+            queryWrapper.orderBy(true, isAsc, "id");
+        }
+        // 从上一页最后一条记录之后开始查询：(sortField, id) 严格大于（升序）或小于（降序）游标
+        String cursor = pictureCursorQueryRequest.getCursor();
+        if (StrUtil.isNotBlank(cursor)) {
+            Object[] cursorValues = PictureCursorUtils.decode(cursor, sortField, sortOrder);
+            Object sortValue = cursorValues[0];
+            Object lastId = cursorValues[1];
+            if ("id".equals(sortField)) {
+                queryWrapper.gt(isAsc, "id", lastId).lt(!isAsc, "id", lastId);
+            } else if (isAsc) {
+                queryWrapper.and(qw -> qw.gt(sortField, sortValue)
+                        .or(o -> o.eq(sortField, sortValue).gt("id", lastId)));
+            } else {
+                queryWrapper.and(qw -> qw.lt(sortField, sortValue)
+                        .or(o -> o.eq(sortField, sortValue).lt("id", lastId)));
+            }
+        }
+        // 多查一条判断是否还有下一页，不使用分页插件，避免 count 查询和 offset 扫描
+        int size = pictureCursorQueryRequest.getPageSize();
+        queryWrapper.last("limit " + (size + 1));
+        List<Picture> pictureList = this.list(queryWrapper);
+
+        CursorPageVO<PictureVO> cursorPageVO = new CursorPageVO<>();
+        boolean hasMore = pictureList.size() > size;
+        if (hasMore) {
+            pictureList = pictureList.subList(0, size);
+            Picture lastPicture = pictureList.get(size - 1);
+            cursorPageVO.setNextCursor(PictureCursorUtils.encode(sortField, sortOrder, lastPicture));
+        }
+        cursorPageVO.setHasMore(hasMore);
+        cursorPageVO.setRecords(this.getPictureVOList(pictureList, pictureCursorQueryRequest.getFields()));
+        return cursorPageVO;
     }
 
     @Override
@@ -673,70 +899,281 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture>
         }
     }
 
+    @Override
+    public void clearCache(Long spaceId) {
+        // 只使图片所在范围（公共图库或指定空间）的缓存失效，不影响其他范围
+        pictureListCacheManager.invalidate(PictureListCacheManager.getScope(spaceId));
+        pageCountManager.invalidate(PageCountManager.PICTURE_REGION, PictureListCacheManager.getScope(spaceId));
+    }
+
+    @Override
+    public void clearDetailCache(Long pictureId) {
+        if (pictureId != null) {
+            pictureDetailCacheManager.invalidate(pictureId);
+        }
+    }
+
+    @Override
+    public void refreshIndex(Long pictureId) {
+        if (pictureId != null) {
+            pictureIndexManager.refresh(Collections.singletonList(pictureId));
+        }
+    }
+
+    @Override
+    public void refreshIndexAndClearCache(Long spaceId, List<Long> pictureIdList) {
+        String scope = PictureListCacheManager.getScope(spaceId);
+        // 先更新索引再使分页缓存失效，避免用旧索引构建新版本的分页缓存
+        pictureIndexManager.refresh(pictureIdList, scope);
+        pageCountManager.invalidate(PageCountManager.PICTURE_REGION, scope);
+    }
+
+    /**
+     * 写入异步提取的调色板、感知哈希并更新索引（在提取线程中执行）
+     * <p>
+     * 提取期间图片可能已重新上传，只更新地址仍为本次上传地址的图片，避免旧图的特征覆盖新图
+     * @param pictureId      图片 id
+     * @param url            本次上传的图片地址
+     * @param pictureFeature 图片特征
+     */
+    private void updatePictureFeature(Long pictureId, String url, PictureFeature pictureFeature) {
+        String picPalette = pictureFeature.getPicPalette();
+        Long picHash = pictureFeature.getPicHash();
+        if (StrUtil.isBlank(picPalette) && picHash == null) {
+            return;
+        }
+        try {
+            boolean result = this.lambdaUpdate()
+                    .eq(Picture::getId, pictureId)
+                    .eq(Picture::getUrl, url)
+                    .set(StrUtil.isNotBlank(picPalette), Picture::getPicPalette, picPalette)
+                    .set(picHash != null, Picture::getPicHash, picHash)
+                    .update();
+            if (result) {
+                this.refreshIndex(pictureId);
+            }
+        } catch (Exception e) {
+            log.error("图片特征写入失败, pictureId = {}", pictureId, e);
+        }
+    }
+
     @Override
     public void clearAllCache() {
-        // 清理本地缓存（如果有命中）
-        String cacheKeyPattern = "picture:listPictureVOByPage:*";
-        LOCAL_CACHE.asMap().keySet().stream()
-                .filter(key -> key.startsWith("picture:listPictureVOByPage:"))
-                .forEach(LOCAL_CACHE::invalidate);
+        // 全局版本号自增即可使所有分页缓存失效，旧缓存随 TTL 过期
+        pictureListCacheManager.invalidateAll();
+        pageCountManager.invalidateAll(PageCountManager.PICTURE_REGION);
+    }
+
+    @Override
+    public List<PictureVO> searchPictureByColor(Long spaceId, String picColor, Double maxDeltaE, User loginUser) {
+        // 1. 校验参数
+        ThrowUtils.throwIf(loginUser == null, ErrorCode.NO_AUTH_ERROR);
+        int targetColor = PictureColorIndex.parseColor(picColor);
+        ThrowUtils.throwIf(targetColor < 0, ErrorCode.PARAMS_ERROR, "颜色格式错误");
+        ThrowUtils.throwIf(maxDeltaE != null && (maxDeltaE < 0 || maxDeltaE > 100), ErrorCode.PARAMS_ERROR, "色差阈值错误");
+        // 指定色差阈值时返回阈值内的图片（有上限），否则返回最相似的若干张
+        int limit = maxDeltaE == null ? PictureConstant.COLOR_SEARCH_LIMIT : PictureConstant.COLOR_RANGE_SEARCH_LIMIT;
+        double threshold = maxDeltaE == null ? Double.POSITIVE_INFINITY : maxDeltaE;
+        // 不指定空间时只搜索公共图库中审核通过的图片，指定空间时需要是空间创建人
+        this.checkSearchSpaceAuth(spaceId, loginUser);
 
-        // 清理 Redis 缓存（使用 SCAN 避免阻塞）
-        ScanOptions options = ScanOptions.scanOptions().match(cacheKeyPattern).build();
-        Cursor<byte[]> cursor = stringRedisTemplate.getConnectionFactory().getConnection().scan(options);
-        while (cursor.hasNext()) {
-            byte[] keyBytes = cursor.next();
-            stringRedisTemplate.delete(new String(keyBytes));
+        // 2. 优先从颜色索引中取最相似的图片 id，索引未就绪时只查询 id 和主色调在内存中计算
+        long[] pictureIds = pictureIndexManager.searchColor(spaceId, targetColor, limit, threshold);
+        if (pictureIds == null) {
+            pictureIds = this.searchPictureIdsByColorFromDb(spaceId, targetColor, limit, threshold);
         }
+
+        // 3. 只查询命中的图片，按色差顺序返回
+        return this.listPictureVOByIds(pictureIds);
     }
 
     @Override
-    public List<PictureVO> searchPictureByColor(Long spaceId, String picColor, User loginUser) {
+    public List<PictureVO> searchPictureByPalette(Long spaceId, List<String> colors, Double maxDeltaE, User loginUser) {
         // 1. 校验参数
         ThrowUtils.throwIf(loginUser == null, ErrorCode.NO_AUTH_ERROR);
+        ThrowUtils.throwIf(CollUtil.isEmpty(colors) || colors.size() > ColorPaletteUtils.MAX_COLORS,
+                ErrorCode.PARAMS_ERROR, "颜色数量错误");
+        int[] targetColors = new int[colors.size()];
+        for (int i = 0; i < colors.size(); i++) {
+            targetColors[i] = PictureColorIndex.parseColor(colors.get(i));
+            ThrowUtils.throwIf(targetColors[i] < 0, ErrorCode.PARAMS_ERROR, "颜色格式错误");
+        }
+        ThrowUtils.throwIf(maxDeltaE != null && (maxDeltaE < 0 || maxDeltaE > 100), ErrorCode.PARAMS_ERROR, "色差阈值错误");
+        double threshold = maxDeltaE == null ? PictureConstant.PALETTE_SEARCH_DELTA_E : maxDeltaE;
+        // 不指定空间时只搜索公共图库中审核通过的图片，指定空间时需要是空间创建人
+        this.checkSearchSpaceAuth(spaceId, loginUser);
 
-        List<Picture> pictureList;
-        // 2. 查询私有空间下所有图片（必须有主色调）
-        if (spaceId != null) {
-            pictureList = this.lambdaQuery()
-                    .eq(Picture::getSpaceId, spaceId)
-                    .isNotNull(Picture::getPicColor)
+        // 2. 优先从调色板索引中搜索，索引未就绪时只查询 id 和颜色，建立临时索引搜索
+        long[] pictureIds = pictureIndexManager.searchPalette(spaceId, targetColors, threshold,
+                PictureConstant.COLOR_SEARCH_LIMIT);
+        if (pictureIds == null) {
+            List<Picture> pictureList = this.lambdaQuery()
+                    .select(Picture::getId, Picture::getSpaceId, Picture::getPicColor, Picture::getPicPalette,
+                            Picture::getReviewStatus)
+                    .eq(spaceId != null, Picture::getSpaceId, spaceId)
+                    .isNull(spaceId == null, Picture::getSpaceId)
+                    .eq(spaceId == null, Picture::getReviewStatus, PictureReviewStatusEnum.REVIEW_PASS.getValue())
+                    .and(qw -> qw.isNotNull(Picture::getPicColor).or().isNotNull(Picture::getPicPalette))
                     .list();
+            PicturePaletteIndex paletteIndex = new PicturePaletteIndex();
+            for (int i = 0; i < pictureList.size(); i++) {
+                paletteIndex.add(i, pictureList.get(i));
+            }
+            pictureIds = paletteIndex.search(spaceId, targetColors, threshold, PictureConstant.COLOR_SEARCH_LIMIT);
+        }
+
+        // 3. 只查询命中的图片，按匹配程度返回
+        return this.listPictureVOByIds(pictureIds);
+    }
+
+    @Override
+    public List<ImageSearchResult> searchPictureByPicture(Long pictureId, Integer maxDistance, User loginUser) {
+        // 1. 校验参数
+        ThrowUtils.throwIf(loginUser == null, ErrorCode.NO_AUTH_ERROR);
+        ThrowUtils.throwIf(pictureId == null || pictureId <= 0, ErrorCode.PARAMS_ERROR);
+        ThrowUtils.throwIf(maxDistance != null && (maxDistance < 0 || maxDistance > PictureConstant.SIMILAR_SEARCH_MAX_DISTANCE),
+                ErrorCode.PARAMS_ERROR, "距离阈值错误");
+        Picture picture = this.getById(pictureId);
+        ThrowUtils.throwIf(picture == null, ErrorCode.NOT_FOUND_ERROR);
+        // 私有空间的图片只在该空间内搜索，需要空间权限
+        Long spaceId = picture.getSpaceId();
+        if (spaceId != null) {
+            this.checkPictureAuth(loginUser, picture);
+        }
+        int threshold = maxDistance == null ? PictureConstant.SIMILAR_SEARCH_DISTANCE : maxDistance;
+
+        // 2. 在图片所在范围（公共图库或私有空间）内按感知哈希搜索近似图片
+        List<ImageSearchResult> resultList = Collections.emptyList();
+        Long picHash = picture.getPicHash();
+        if (picHash == null) {
+            // 历史图片还没有补算哈希：提交后台优先补算，本次不阻塞请求
+            pictureHashBackfillManager.submit(picture);
         } else {
-            // 3. 查询私有空间下所有图片（必须有主色调）
-            pictureList = this.lambdaQuery()
-                    .isNotNull(Picture::getPicColor)
-                    .list();
+            // 多取一张，结果中排除原图
+            int limit = PictureConstant.SIMILAR_SEARCH_LIMIT + 1;
+            long[] pictureIds = pictureIndexManager.searchSimilar(spaceId, picHash, threshold, limit);
+            if (pictureIds == null) {
+                pictureIds = this.searchSimilarPictureIdsFromDb(spaceId, picHash, threshold, limit);
+            }
+            resultList = this.listSimilarResults(pictureIds, pictureId, picHash);
         }
-        // 如果没有图片，直接返回空列表
-        if (CollUtil.isEmpty(pictureList)) {
+
+        // 3. 图库中没有近似图片时，按配置退回外部以图搜图
+        if (resultList.isEmpty() && externalSearchFallback) {
+            try {
+                resultList = ImageSearchApiFacade.searchImage(picture.getDownloadUrl());
+            } catch (BusinessException e) {
+                log.warn("外部以图搜图失败, pictureId = {}", pictureId, e);
+            }
+        }
+        return resultList;
+    }
+
+    /**
+     * 以图搜图（数据库）：只查询 id 和感知哈希，建立临时索引搜索
+     */
+    private long[] searchSimilarPictureIdsFromDb(Long spaceId, long picHash, int maxDistance, int limit) {
+        List<Picture> pictureList = this.lambdaQuery()
+                .select(Picture::getId, Picture::getSpaceId, Picture::getPicHash, Picture::getReviewStatus)
+                .eq(spaceId != null, Picture::getSpaceId, spaceId)
+                .isNull(spaceId == null, Picture::getSpaceId)
+                .isNotNull(Picture::getPicHash)
+                .list();
+        PictureHashIndex hashIndex = new PictureHashIndex();
+        for (int i = 0; i < pictureList.size(); i++) {
+            hashIndex.add(i, pictureList.get(i));
+        }
+        return hashIndex.search(spaceId, picHash, maxDistance, limit);
+    }
+
+    /**
+     * 按汉明距离顺序封装以图搜图结果，排除原图
+     */
+    private List<ImageSearchResult> listSimilarResults(long[] pictureIds, Long sourcePictureId, long picHash) {
+        long[] otherIds = Arrays.stream(pictureIds).filter(id -> id != sourcePictureId).toArray();
+        if (otherIds.length == 0) {
             return Collections.emptyList();
         }
-        // 将目标颜色转为 Color 对象
-        Color targetColor = Color.decode(picColor);
-        // 4. 计算相似度并排序
-        List<Picture> sortedPictures = pictureList.stream()
-                .sorted(Comparator.comparingDouble(picture -> {
-                    // 提取图片主色调
-                    String hexColor = picture.getPicColor();
-                    // 没有主色调的图片放到最后
-                    if (StrUtil.isBlank(hexColor)) {
-                        return Double.MAX_VALUE;
-                    }
-                    Color pictureColor = Color.decode(hexColor);
-                    // 越大越相似
-                    return -ColorSimilarUtils.calculateSimilarity(targetColor, pictureColor);
-                }))
-                // 取前 12 个
-                .limit(12)
+        List<Long> pictureIdList = Arrays.stream(otherIds)
+                .limit(PictureConstant.SIMILAR_SEARCH_LIMIT)
+                .boxed()
                 .collect(Collectors.toList());
+        Map<Long, Picture> pictureMap = this.listByIds(pictureIdList).stream()
+                .collect(Collectors.toMap(Picture::getId, picture -> picture));
+        List<ImageSearchResult> resultList = new ArrayList<>();
+        for (Long id : pictureIdList) {
+            Picture picture = pictureMap.get(id);
+            if (picture == null || picture.getPicHash() == null) {
+                continue;
+            }
+            ImageSearchResult imageSearchResult = new ImageSearchResult();
+            imageSearchResult.setThumbUrl(StrUtil.blankToDefault(picture.getThumbnailUrl(), picture.getUrl()));
+            imageSearchResult.setFromUrl(picture.getUrl());
+            imageSearchResult.setPictureId(picture.getId());
+            imageSearchResult.setDistance(ImageHashUtils.hammingDistance(picture.getPicHash(), picHash));
+            resultList.add(imageSearchResult);
+        }
+        return resultList;
+    }
 
-        // 转换为 PictureVO
-        return sortedPictures.stream()
+    /**
+     * 校验搜图范围：不指定空间时搜索公共图库，指定空间时需要是空间创建人（与分页查询的空间权限一致）
+     */
+    private void checkSearchSpaceAuth(Long spaceId, User loginUser) {
+        if (spaceId == null) {
+            return;
+        }
+        Space space = spaceService.getById(spaceId);
+        ThrowUtils.throwIf(space == null, ErrorCode.NOT_FOUND_ERROR, "空间不存在");
+        if (!loginUser.getId().equals(space.getUserId())) {
+            throw new BusinessException(ErrorCode.NO_AUTH_ERROR, "没有空间权限");
+        }
+    }
+
+    /**
+     * 按给定顺序查询图片封装类（不关联用户信息），不存在的图片跳过
+     */
+    private List<PictureVO> listPictureVOByIds(long[] pictureIds) {
+        if (pictureIds.length == 0) {
+            return Collections.emptyList();
+        }
+        List<Long> pictureIdList = Arrays.stream(pictureIds).boxed().collect(Collectors.toList());
+        Map<Long, Picture> pictureMap = this.listByIds(pictureIdList).stream()
+                .collect(Collectors.toMap(Picture::getId, picture -> picture));
+        return pictureIdList.stream()
+                .map(pictureMap::get)
+                .filter(Objects::nonNull)
                 .map(PictureVO::objToVo)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * 颜色搜图（数据库）：只查询 id 和主色调，计算 CIEDE2000 色差后用有界 Top-K 取最相似的图片
+     */
+    private long[] searchPictureIdsByColorFromDb(Long spaceId, int targetColor, int limit, double maxDeltaE) {
+        List<Picture> pictureList = this.lambdaQuery()
+                .select(Picture::getId, Picture::getPicColor)
+                .eq(spaceId != null, Picture::getSpaceId, spaceId)
+                .isNull(spaceId == null, Picture::getSpaceId)
+                .eq(spaceId == null, Picture::getReviewStatus, PictureReviewStatusEnum.REVIEW_PASS.getValue())
+                .isNotNull(Picture::getPicColor)
+                .list();
+        double[] targetLab = ColorSimilarUtils.rgbToLab(targetColor);
+        TopK topK = new TopK(limit);
+        for (Picture picture : pictureList) {
+            int color = PictureColorIndex.parseColor(picture.getPicColor());
+            if (color < 0) {
+                continue;
+            }
+            double[] lab = ColorSimilarUtils.rgbToLab(color);
+            double deltaE = ColorSimilarUtils.deltaE2000(targetLab[0], targetLab[1], targetLab[2], lab[0], lab[1], lab[2]);
+            if (deltaE <= maxDeltaE) {
+                topK.offer(picture.getId(), deltaE);
+            }
+        }
+        return topK.toSortedIds();
+    }
+
     @Override
     public void editPictureByBatch(PictureEditByBatchRequest pictureEditByBatchRequest, User loginUser) {
         // 解析请求参数
@@ -776,6 +1213,9 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture>
         // 批量更新
         boolean result = this.updateBatchById(pictureList);
         ThrowUtils.throwIf(!result, ErrorCode.OPERATION_ERROR);
+        // 更新索引并清理空间范围的缓存
+        pictureIdList.forEach(this::clearDetailCache);
+        this.refreshIndexAndClearCache(spaceId, pictureList.stream().map(Picture::getId).collect(Collectors.toList()));
     }
 
     @Override
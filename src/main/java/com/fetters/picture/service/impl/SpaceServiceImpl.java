@@ -10,6 +10,8 @@ import com.fetters.picture.common.DeleteRequest;
 import com.fetters.picture.exception.BusinessException;
 import com.fetters.picture.exception.ErrorCode;
 import com.fetters.picture.exception.ThrowUtils;
+import com.fetters.picture.manager.cache.PageCountManager;
+import com.fetters.picture.manager.cache.UserVOCacheManager;
 import com.fetters.picture.mapper.SpaceMapper;
 import com.fetters.picture.model.dto.space.SpaceAddRequest;
 import com.fetters.picture.model.dto.space.SpaceQueryRequest;
@@ -61,6 +63,12 @@ public class SpaceServiceImpl extends ServiceImpl<SpaceMapper, Space>
     @Resource
     private ApplicationEventPublisher eventPublisher;
 
+    @Resource
+    private PageCountManager pageCountManager;
+
+    @Resource
+    private UserVOCacheManager userVOCacheManager;
+
     Map<Long, Object> userLockMap = new ConcurrentHashMap<>();
 
     @Override
@@ -115,10 +123,24 @@ public class SpaceServiceImpl extends ServiceImpl<SpaceMapper, Space>
                 // 返回新写入的数据 id
                 return space.getId();
             });
+            this.clearCountCache();
             return newSpaceId;
         }
     }
 
+    @Override
+    public Page<Space> listSpaceByPage(SpaceQueryRequest spaceQueryRequest) {
+        long current = spaceQueryRequest.getCurrent();
+        long size = spaceQueryRequest.getPageSize();
+        return pageCountManager.page(this, PageCountManager.SPACE_REGION, PageCountManager.ALL_SCOPE,
+                current, size, this.getQueryWrapper(spaceQueryRequest));
+    }
+
+    @Override
+    public void clearCountCache() {
+        pageCountManager.invalidate(PageCountManager.SPACE_REGION, PageCountManager.ALL_SCOPE);
+    }
+
     @Override
     public QueryWrapper<Space> getQueryWrapper(SpaceQueryRequest spaceQueryRequest) {
         QueryWrapper<Space> queryWrapper = new QueryWrapper<>();
@@ -149,12 +171,7 @@ public class SpaceServiceImpl extends ServiceImpl<SpaceMapper, Space>
         // 对象转封装类
         SpaceVO spaceVO = SpaceVO.objToVo(space);
         // 关联查询用户信息
-        Long userId = spaceVO.getUserId();
-        if (userId != null && userId > 0) {
-            User user = userService.getById(userId);
-            UserVO userVO = userService.getUserVO(user);
-            spaceVO.setUser(userVO);
-        }
+        spaceVO.setUser(userVOCacheManager.get(spaceVO.getUserId()));
         return spaceVO;
     }
 
@@ -167,19 +184,11 @@ public class SpaceServiceImpl extends ServiceImpl<SpaceMapper, Space>
         }
         // 对象列表 => 封装对象列表
         List<SpaceVO> spaceaVOList = spaceaList.stream().map(SpaceVO::objToVo).collect(Collectors.toList());
-        // 1. 关联查询用户信息
+        // 1. 关联查询用户信息（优先从缓存批量获取）
         Set<Long> userIdSet = spaceaList.stream().map(Space::getUserId).collect(Collectors.toSet());
-        Map<Long, List<User>> userIdUserListMap = userService.listByIds(userIdSet).stream()
-                .collect(Collectors.groupingBy(User::getId));
+        Map<Long, UserVO> userVOMap = userVOCacheManager.getAll(userIdSet);
         // 2. 填充信息
-        spaceaVOList.forEach(spaceaVO -> {
-            Long userId = spaceaVO.getUserId();
-            User user = null;
-            if (userIdUserListMap.containsKey(userId)) {
-                user = userIdUserListMap.get(userId).get(0);
-            }
-            spaceaVO.setUser(userService.getUserVO(user));
-        });
+        spaceaVOList.forEach(spaceaVO -> spaceaVO.setUser(userVOMap.get(spaceaVO.getUserId())));
         spaceaVOPage.setRecords(spaceaVOList);
         return spaceaVOPage;
     }
@@ -250,6 +259,7 @@ public class SpaceServiceImpl extends ServiceImpl<SpaceMapper, Space>
         // 删除空间
         boolean result = this.removeById(id);
         ThrowUtils.throwIf(!result, ErrorCode.OPERATION_ERROR);
+        this.clearCountCache();
     }
 
     /**
@@ -5,11 +5,13 @@ import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.util.ObjUtil;
 import cn.hutool.core.util.StrUtil;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.fetters.picture.constant.UserConstant;
 import com.fetters.picture.exception.BusinessException;
 import com.fetters.picture.exception.ErrorCode;
 import com.fetters.picture.manager.auth.StpKit;
+import com.fetters.picture.manager.cache.PageCountManager;
 import com.fetters.picture.mapper.UserMapper;
 import com.fetters.picture.model.dto.user.UserQueryRequest;
 import com.fetters.picture.model.entity.User;
@@ -22,6 +24,7 @@ import org.springframework.beans.BeanUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.util.DigestUtils;
 
+import javax.annotation.Resource;
 import javax.servlet.http.HttpServletRequest;
 import java.util.ArrayList;
 import java.util.List;
@@ -35,6 +38,10 @@ import java.util.stream.Collectors;
 @Service
 @Slf4j
 public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements UserService {
+
+    @Resource
+    private PageCountManager pageCountManager;
+
     /**
      * 用户注册
      * @param userAccount
@@ -79,6 +86,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
         if (!saveResult) {
             throw new BusinessException(ErrorCode.SYSTEM_ERROR, "注册失败");
         }
+        this.clearCountCache();
         return user.getId();
     }
 
@@ -246,6 +254,19 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
         return queryWrapper;
     }
 
+    @Override
+    public Page<User> listUserByPage(UserQueryRequest userQueryRequest) {
+        long current = userQueryRequest.getCurrent();
+        long pageSize = userQueryRequest.getPageSize();
+        return pageCountManager.page(this, PageCountManager.USER_REGION, PageCountManager.ALL_SCOPE,
+                current, pageSize, this.getQueryWrapper(userQueryRequest));
+    }
+
+    @Override
+    public void clearCountCache() {
+        pageCountManager.invalidate(PageCountManager.USER_REGION, PageCountManager.ALL_SCOPE);
+    }
+
     /**
      * 判断用户是否为管理员
      * @param user
@@ -0,0 +1,316 @@
+package com.fetters.picture.utils;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * 工具类：提取图片调色板
+ * <p>
+ * 对缩小解码后的图片做中位切分（median cut）：像素按每通道 5 位量化为直方图，反复选取「像素数 × 最长边」最大的颜色盒，
+ * 沿最长的通道在像素数的中位处切开，最后以每个盒的加权平均色作为调色板颜色，像素占比作为权重。
+ * <p>
+ * 调色板编码为紧凑字符串：每种颜色 8 位十六进制 RRGGBBWW（WW 为占比百分数），按占比从高到低拼接，最多 5 种共 40 个字符。
+ */
+public class ColorPaletteUtils {
+
+    private ColorPaletteUtils() {
+        // 工具类不需要实例化
+    }
+
+    /**
+     * 调色板最多颜色数
+     */
+    public static final int MAX_COLORS = 5;
+
+    /**
+     * 解码时图片长边的目标像素数
+     */
+    private static final int SAMPLE_SIZE = 128;
+
+    /**
+     * 每通道量化位数
+     */
+    private static final int SIGNIFICANT_BITS = 5;
+
+    private static final int SHIFT = 8 - SIGNIFICANT_BITS;
+
+    private static final int SIDE = 1 << SIGNIFICANT_BITS;
+
+    /**
+     * 透明度低于该值的像素不参与计算
+     */
+    private static final int MIN_ALPHA = 125;
+
+    /**
+     * 从图片文件提取调色板
+     * @param file 图片文件
+     * @return 调色板，按占比从高到低排序；无法解码（如 ImageIO 不支持的格式）时返回空列表
+     */
+    public static List<PaletteColor> extract(File file) throws IOException {
+        BufferedImage image = readSampled(file);
+        return image == null ? new ArrayList<>() : extract(image, MAX_COLORS);
+    }
+
+    /**
+     * 从图片提取调色板
+     * @param image     图片
+     * @param maxColors 最多颜色数
+     * @return 调色板，按占比从高到低排序
+     */
+    public static List<PaletteColor> extract(BufferedImage image, int maxColors) {
+        int[] histogram = new int[SIDE * SIDE * SIDE];
+        int total = 0;
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] row = new int[width];
+        boolean hasAlpha = image.getColorModel().hasAlpha();
+        for (int y = 0; y < height; y++) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            for (int argb : row) {
+                if (hasAlpha && (argb >>> 24) < MIN_ALPHA) {
+                    continue;
+                }
+                histogram[index((argb >> 16 & 0xFF) >> SHIFT, (argb >> 8 & 0xFF) >> SHIFT, (argb & 0xFF) >> SHIFT)]++;
+                total++;
+            }
+        }
+        if (total == 0) {
+            return new ArrayList<>();
+        }
+        // 中位切分
+        List<ColorBox> boxList = new ArrayList<>();
+        boxList.add(ColorBox.of(histogram, 0, SIDE - 1, 0, SIDE - 1, 0, SIDE - 1));
+        while (boxList.size() < maxColors) {
+            ColorBox target = boxList.stream()
+                    .filter(box -> box.longestSide() > 0)
+                    .max(Comparator.comparingLong(box -> (long) box.count * box.longestSide()))
+                    .orElse(null);
+            if (target == null) {
+                break;
+            }
+            boxList.remove(target);
+            boxList.addAll(target.split(histogram));
+        }
+        List<PaletteColor> paletteList = new ArrayList<>();
+        for (ColorBox box : boxList) {
+            int weight = Math.max(1, Math.round(box.count * 100f / total));
+            paletteList.add(new PaletteColor(box.averageColor(histogram), weight));
+        }
+        paletteList.sort(Comparator.comparingInt(PaletteColor::getWeight).reversed());
+        return paletteList;
+    }
+
+    /**
+     * 编码调色板
+     * @param paletteList 调色板
+     * @return 编码后的字符串，调色板为空时返回空串
+     */
+    public static String encode(List<PaletteColor> paletteList) {
+        StringBuilder builder = new StringBuilder(MAX_COLORS * 8);
+        for (int i = 0; i < paletteList.size() && i < MAX_COLORS; i++) {
+            PaletteColor paletteColor = paletteList.get(i);
+            builder.append(String.format("%06X%02X", paletteColor.getRgb(), Math.min(paletteColor.getWeight(), 100)));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 解码调色板
+     * @param palette 编码后的字符串
+     * @return 调色板，格式错误时返回空列表
+     */
+    public static List<PaletteColor> decode(String palette) {
+        List<PaletteColor> paletteList = new ArrayList<>();
+        if (palette == null || palette.length() % 8 != 0) {
+            return paletteList;
+        }
+        try {
+            for (int i = 0; i < palette.length(); i += 8) {
+                int rgb = Integer.parseInt(palette.substring(i, i + 6), 16);
+                int weight = Integer.parseInt(palette.substring(i + 6, i + 8), 16);
+                paletteList.add(new PaletteColor(rgb, weight));
+            }
+        } catch (NumberFormatException e) {
+            paletteList.clear();
+        }
+        return paletteList;
+    }
+
+    /**
+     * 按长边约 {@link #SAMPLE_SIZE} 像素隔行隔列采样解码，不在内存中保留原尺寸图片
+     * @param file 图片文件
+     * @return 缩小后的图片；无法解码时返回 null
+     */
+    public static BufferedImage readSampled(File file) throws IOException {
+        try (ImageInputStream inputStream = ImageIO.createImageInputStream(file)) {
+            if (inputStream == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(inputStream);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(inputStream, true, true);
+                int step = Math.max(1, Math.max(reader.getWidth(0), reader.getHeight(0)) / SAMPLE_SIZE);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static int index(int r, int g, int b) {
+        return (r << (2 * SIGNIFICANT_BITS)) | (g << SIGNIFICANT_BITS) | b;
+    }
+
+    /**
+     * 调色板颜色
+     */
+    @Data
+    @AllArgsConstructor
+    public static class PaletteColor {
+
+        /**
+         * 颜色（0xRRGGBB）
+         */
+        private int rgb;
+
+        /**
+         * 占比（百分数）
+         */
+        private int weight;
+    }
+
+    /**
+     * 量化空间中的颜色盒（各通道闭区间）
+     */
+    private static class ColorBox {
+
+        private final int r1, r2, g1, g2, b1, b2;
+
+        private final int count;
+
+        private ColorBox(int r1, int r2, int g1, int g2, int b1, int b2, int count) {
+            this.r1 = r1;
+            this.r2 = r2;
+            this.g1 = g1;
+            this.g2 = g2;
+            this.b1 = b1;
+            this.b2 = b2;
+            this.count = count;
+        }
+
+        /**
+         * 创建颜色盒，并收缩到实际有像素的范围
+         */
+        static ColorBox of(int[] histogram, int r1, int r2, int g1, int g2, int b1, int b2) {
+            int minR = SIDE, maxR = -1, minG = SIDE, maxG = -1, minB = SIDE, maxB = -1;
+            int count = 0;
+            for (int r = r1; r <= r2; r++) {
+                for (int g = g1; g <= g2; g++) {
+                    for (int b = b1; b <= b2; b++) {
+                        int value = histogram[index(r, g, b)];
+                        if (value == 0) {
+                            continue;
+                        }
+                        count += value;
+                        minR = Math.min(minR, r);
+                        maxR = Math.max(maxR, r);
+                        minG = Math.min(minG, g);
+                        maxG = Math.max(maxG, g);
+                        minB = Math.min(minB, b);
+                        maxB = Math.max(maxB, b);
+                    }
+                }
+            }
+            return new ColorBox(minR, maxR, minG, maxG, minB, maxB, count);
+        }
+
+        int longestSide() {
+            return Math.max(r2 - r1, Math.max(g2 - g1, b2 - b1));
+        }
+
+        /**
+         * 沿最长的通道在像素数的中位处切成两个非空的盒
+         */
+        List<ColorBox> split(int[] histogram) {
+            int side = longestSide();
+            int channel = side == r2 - r1 ? 0 : (side == g2 - g1 ? 1 : 2);
+            int low = channel == 0 ? r1 : (channel == 1 ? g1 : b1);
+            int high = channel == 0 ? r2 : (channel == 1 ? g2 : b2);
+            int cut = high - 1;
+            int accumulated = 0;
+            for (int value = low; value < high; value++) {
+                accumulated += planeCount(histogram, channel, value);
+                if (accumulated * 2 >= count) {
+                    cut = value;
+                    break;
+                }
+            }
+            List<ColorBox> result = new ArrayList<>(2);
+            if (channel == 0) {
+                result.add(of(histogram, r1, cut, g1, g2, b1, b2));
+                result.add(of(histogram, cut + 1, r2, g1, g2, b1, b2));
+            } else if (channel == 1) {
+                result.add(of(histogram, r1, r2, g1, cut, b1, b2));
+                result.add(of(histogram, r1, r2, cut + 1, g2, b1, b2));
+            } else {
+                result.add(of(histogram, r1, r2, g1, g2, b1, cut));
+                result.add(of(histogram, r1, r2, g1, g2, cut + 1, b2));
+            }
+            return result;
+        }
+
+        /**
+         * 盒内某个通道取值为 value 的像素数
+         */
+        private int planeCount(int[] histogram, int channel, int value) {
+            int count = 0;
+            for (int r = channel == 0 ? value : r1; r <= (channel == 0 ? value : r2); r++) {
+                for (int g = channel == 1 ? value : g1; g <= (channel == 1 ? value : g2); g++) {
+                    for (int b = channel == 2 ? value : b1; b <= (channel == 2 ? value : b2); b++) {
+                        count += histogram[index(r, g, b)];
+                    }
+                }
+            }
+            return count;
+        }
+
+        /**
+         * 盒内像素的加权平均色（量化值取区间中点还原为 8 位）
+         */
+        int averageColor(int[] histogram) {
+            long sumR = 0, sumG = 0, sumB = 0;
+            for (int r = r1; r <= r2; r++) {
+                for (int g = g1; g <= g2; g++) {
+                    for (int b = b1; b <= b2; b++) {
+                        int value = histogram[index(r, g, b)];
+                        sumR += (long) value * ((r << SHIFT) + (1 << (SHIFT - 1)));
+                        sumG += (long) value * ((g << SHIFT) + (1 << (SHIFT - 1)));
+                        sumB += (long) value * ((b << SHIFT) + (1 << (SHIFT - 1)));
+                    }
+                }
+            }
+            int red = (int) Math.min(255, Math.round((double) sumR / count));
+            int green = (int) Math.min(255, Math.round((double) sumG / count));
+            int blue = (int) Math.min(255, Math.round((double) sumB / count));
+            return red << 16 | green << 8 | blue;
+        }
+    }
+}
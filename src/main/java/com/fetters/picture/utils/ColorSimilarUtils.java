@@ -4,6 +4,9 @@ import java.awt.*;
 
 /**
  * 工具类：计算颜色相似度
+ * <p>
+ * 颜色搜图使用 CIELAB 空间中的 CIEDE2000 色差（ΔE00），与人眼感知的差异基本一致；
+ * ΔE00 约 1 以下人眼难以分辨，2 - 10 为一眼可见的差异，超过 50 可视为完全不同的颜色。
  */
 public class ColorSimilarUtils {
 
@@ -11,6 +14,37 @@ public class ColorSimilarUtils {
         // 工具类不需要实例化
     }
 
+    /**
+     * RGB 三维空间中的最大距离
+     */
+    private static final double MAX_RGB_DISTANCE = Math.sqrt(3 * 255 * 255);
+
+    /**
+     * 25 的 7 次方，CIEDE2000 公式中的常量
+     */
+    public static final double POW25_7 = 6103515625.0;
+
+    /**
+     * D65 白点
+     */
+    private static final double XN = 0.95047;
+
+    private static final double YN = 1.0;
+
+    private static final double ZN = 1.08883;
+
+    /**
+     * sRGB 分量（0 - 255）=> 线性分量，预先计算避免每次调用 Math.pow
+     */
+    private static final double[] LINEAR_TABLE = new double[256];
+
+    static {
+        for (int i = 0; i < LINEAR_TABLE.length; i++) {
+            double c = i / 255.0;
+            LINEAR_TABLE[i] = c <= 0.04045 ? c / 12.92 : Math.pow((c + 0.055) / 1.055, 2.4);
+        }
+    }
+
     /**
      * 计算两个颜色的相似度
      * @param color1 第一个颜色
@@ -18,19 +52,15 @@ public class ColorSimilarUtils {
      * @return 相似度（0到1之间，1为完全相同）
      */
     public static double calculateSimilarity(Color color1, Color color2) {
-        int r1 = color1.getRed();
-        int g1 = color1.getGreen();
-        int b1 = color1.getBlue();
-
-        int r2 = color2.getRed();
-        int g2 = color2.getGreen();
-        int b2 = color2.getBlue();
+        int dr = color1.getRed() - color2.getRed();
+        int dg = color1.getGreen() - color2.getGreen();
+        int db = color1.getBlue() - color2.getBlue();
 
         // 计算欧氏距离
-        double distance = Math.sqrt(Math.pow(r1 - r2, 2) + Math.pow(g1 - g2, 2) + Math.pow(b1 - b2, 2));
+        double distance = Math.sqrt(dr * dr + dg * dg + db * db);
 
         // 计算相似度
-        return 1 - distance / Math.sqrt(3 * Math.pow(255, 2));
+        return 1 - distance / MAX_RGB_DISTANCE;
     }
 
     /**
@@ -45,6 +75,114 @@ public class ColorSimilarUtils {
         return calculateSimilarity(color1, color2);
     }
 
+    /**
+     * sRGB 转 CIELAB（D65 白点）
+     * @param rgb 打包后的 RGB（0xRRGGBB）
+     * @return {L, a, b}
+     */
+    public static double[] rgbToLab(int rgb) {
+        double r = LINEAR_TABLE[(rgb >>> 16) & 0xFF];
+        double g = LINEAR_TABLE[(rgb >>> 8) & 0xFF];
+        double b = LINEAR_TABLE[rgb & 0xFF];
+        double fx = labF((0.4124564 * r + 0.3575761 * g + 0.1804375 * b) / XN);
+        double fy = labF((0.2126729 * r + 0.7151522 * g + 0.0721750 * b) / YN);
+        double fz = labF((0.0193339 * r + 0.1191920 * g + 0.9503041 * b) / ZN);
+        return new double[]{116 * fy - 16, 500 * (fx - fy), 200 * (fy - fz)};
+    }
+
+    /**
+     * 计算 CIEDE2000 色差
+     * @return ΔE00，0 为完全相同
+     */
+    public static double deltaE2000(double l1, double a1, double b1, double l2, double a2, double b2) {
+        double cMean = (Math.sqrt(a1 * a1 + b1 * b1) + Math.sqrt(a2 * a2 + b2 * b2)) / 2;
+        double cMean7 = pow7(cMean);
+        double g = 0.5 * (1 - Math.sqrt(cMean7 / (cMean7 + POW25_7)));
+        double a1p = a1 * (1 + g);
+        double a2p = a2 * (1 + g);
+        double c1p = Math.sqrt(a1p * a1p + b1 * b1);
+        double c2p = Math.sqrt(a2p * a2p + b2 * b2);
+        double h1p = hue(a1p, b1);
+        double h2p = hue(a2p, b2);
+
+        double deltaLp = l2 - l1;
+        double deltaCp = c2p - c1p;
+        double deltahp = 0;
+        if (c1p * c2p != 0) {
+            deltahp = h2p - h1p;
+            if (deltahp > 180) {
+                deltahp -= 360;
+            } else if (deltahp < -180) {
+                deltahp += 360;
+            }
+        }
+        double deltaHp = 2 * Math.sqrt(c1p * c2p) * Math.sin(Math.toRadians(deltahp / 2));
+
+        double lMeanP = (l1 + l2) / 2;
+        double cMeanP = (c1p + c2p) / 2;
+        double hMeanP;
+        if (c1p * c2p == 0) {
+            hMeanP = h1p + h2p;
+        } else if (Math.abs(h1p - h2p) <= 180) {
+            hMeanP = (h1p + h2p) / 2;
+        } else if (h1p + h2p < 360) {
+            hMeanP = (h1p + h2p + 360) / 2;
+        } else {
+            hMeanP = (h1p + h2p - 360) / 2;
+        }
+
+        double t = 1 - 0.17 * Math.cos(Math.toRadians(hMeanP - 30))
+                + 0.24 * Math.cos(Math.toRadians(2 * hMeanP))
+                + 0.32 * Math.cos(Math.toRadians(3 * hMeanP + 6))
+                - 0.20 * Math.cos(Math.toRadians(4 * hMeanP - 63));
+        double hueOffset = (hMeanP - 275) / 25;
+        double deltaTheta = 30 * Math.exp(-hueOffset * hueOffset);
+        double cMeanP7 = pow7(cMeanP);
+        double rc = 2 * Math.sqrt(cMeanP7 / (cMeanP7 + POW25_7));
+        double sl = lightnessWeight(lMeanP);
+        double sc = 1 + 0.045 * cMeanP;
+        double sh = 1 + 0.015 * cMeanP * t;
+        double rt = -Math.sin(Math.toRadians(2 * deltaTheta)) * rc;
+
+        double x = deltaLp / sl;
+        double y = deltaCp / sc;
+        double z = deltaHp / sh;
+        return Math.sqrt(x * x + y * y + z * z + rt * y * z);
+    }
+
+    /**
+     * CIEDE2000 的明度权重 SL
+     * @param lMean 两个颜色的平均明度
+     */
+    public static double lightnessWeight(double lMean) {
+        double offset = (lMean - 50) * (lMean - 50);
+        return 1 + 0.015 * offset / Math.sqrt(20 + offset);
+    }
+
+    /**
+     * 7 次方（彩度修正因子使用）
+     */
+    public static double pow7(double value) {
+        double value2 = value * value;
+        double value3 = value2 * value;
+        return value3 * value3 * value;
+    }
+
+    private static double labF(double t) {
+        return t > 216.0 / 24389 ? Math.cbrt(t) : (24389.0 / 27 * t + 16) / 116;
+    }
+
+    /**
+     * 色相角（0 - 360 度）
+     */
+    private static double hue(double a, double b) {
+        if (a == 0 && b == 0) {
+            return 0;
+        }
+        double h = Math.toDegrees(Math.atan2(b, a));
+        return h < 0 ? h + 360 : h;
+    }
+
     // 示例代码
     public static void main(String[] args) {
         // 测试颜色
@@ -0,0 +1,79 @@
+package com.fetters.picture.utils;
+
+import cn.hutool.core.lang.hash.MurmurHash;
+import cn.hutool.core.util.StrUtil;
+import org.springframework.http.HttpHeaders;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * 工具类：条件请求（ETag / If-None-Match）
+ * <p>
+ * 不使用 Spring 的 checkNotModified，因为分页接口为 POST 请求，匹配时 Spring 会返回 412 而不是 304。
+ * gzip 响应的 ETag 带 -gzip 后缀（与原始字节区分），比较时两种表示视为同一版本。
+ */
+public class ETagUtils {
+
+    private ETagUtils() {
+        // 工具类不需要实例化
+    }
+
+    /**
+     * gzip 响应的 ETag 后缀
+     */
+    public static final String GZIP_SUFFIX = "-gzip";
+
+    /**
+     * 根据版本信息（如带版本号的缓存 key）生成 ETag 值（不含引号）
+     * @param version 版本信息
+     * @return ETag 值
+     */
+    public static String hash(String version) {
+        long[] hash = MurmurHash.hash128(version);
+        return String.format("%016x%016x", hash[0], hash[1]);
+    }
+
+    /**
+     * 构建条件请求相关的响应头：ETag、Cache-Control
+     * @param eTag ETag 值（不含引号）
+     * @return 响应头
+     */
+    public static HttpHeaders buildHeaders(String eTag) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(quote(eTag));
+        // 客户端需要每次重新校验，私有数据不允许共享缓存
+        headers.setCacheControl("private, no-cache");
+        return headers;
+    }
+
+    /**
+     * 判断请求的 If-None-Match 是否匹配（匹配时应返回 304，不写响应体）
+     * @param eTag    ETag 值（不含引号）
+     * @param request 请求
+     * @return 是否未修改
+     */
+    public static boolean isNotModified(String eTag, HttpServletRequest request) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (StrUtil.isBlank(ifNoneMatch)) {
+            return false;
+        }
+        for (String requestETag : ifNoneMatch.split(",")) {
+            // If-None-Match 使用弱比较
+            requestETag = StrUtil.removePrefix(requestETag.trim(), "W/");
+            if ("*".equals(requestETag) || requestETag.equals(quote(eTag))
+                    || requestETag.equals(quote(eTag + GZIP_SUFFIX))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 给 ETag 值加上引号
+     * @param eTag ETag 值
+     * @return 响应头中的 ETag
+     */
+    public static String quote(String eTag) {
+        return "\"" + eTag + "\"";
+    }
+}
@@ -0,0 +1,86 @@
+package com.fetters.picture.utils;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * 工具类：图片感知哈希
+ * <p>
+ * 采用差值哈希（dHash）：将图片转为灰度并按面积平均缩小到 9 × 8，每行相邻两个像素比较亮度，左侧更亮记为 1，共 64 位。
+ * 哈希只反映图片的明暗结构，对缩放、压缩、轻微调色不敏感，两张图片哈希的汉明距离越小越相似，一般不超过 10 可视为近似重复。
+ */
+public class ImageHashUtils {
+
+    private ImageHashUtils() {
+        // 工具类不需要实例化
+    }
+
+    /**
+     * 缩小后的宽度（每行比较 8 次）
+     */
+    private static final int HASH_WIDTH = 9;
+
+    /**
+     * 缩小后的高度
+     */
+    private static final int HASH_HEIGHT = 8;
+
+    /**
+     * 计算差值哈希
+     * @param image 图片（建议先缩小解码，见 {@link ColorPaletteUtils#readSampled}）
+     * @return 64 位哈希，第 (行 × 8 + 列) 位表示该位置左侧像素是否更亮
+     */
+    public static long dHash(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        // 每个缩小后的像素对应原图中的一个矩形区域，累加区域内的灰度
+        double[] sums = new double[HASH_WIDTH * HASH_HEIGHT];
+        int[] counts = new int[HASH_WIDTH * HASH_HEIGHT];
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            int cellY = (int) ((long) y * HASH_HEIGHT / height);
+            for (int x = 0; x < width; x++) {
+                int cell = cellY * HASH_WIDTH + (int) ((long) x * HASH_WIDTH / width);
+                sums[cell] += gray(row[x]);
+                counts[cell]++;
+            }
+        }
+        // 图片小于 9 × 8 时部分区域没有像素，取区域中心对应的像素（最近邻放大）
+        double[] grays = new double[HASH_WIDTH * HASH_HEIGHT];
+        for (int i = 0; i < grays.length; i++) {
+            if (counts[i] > 0) {
+                grays[i] = sums[i] / counts[i];
+            } else {
+                int x = (int) ((2L * (i % HASH_WIDTH) + 1) * width / (2 * HASH_WIDTH));
+                int y = (int) ((2L * (i / HASH_WIDTH) + 1) * height / (2 * HASH_HEIGHT));
+                grays[i] = gray(image.getRGB(x, y));
+            }
+        }
+        long hash = 0L;
+        for (int y = 0; y < HASH_HEIGHT; y++) {
+            for (int x = 0; x < HASH_WIDTH - 1; x++) {
+                if (grays[y * HASH_WIDTH + x] > grays[y * HASH_WIDTH + x + 1]) {
+                    hash |= 1L << (y * (HASH_WIDTH - 1) + x);
+                }
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * 灰度（ITU-R BT.601 亮度）
+     */
+    private static double gray(int rgb) {
+        return 0.299 * (rgb >> 16 & 0xFF) + 0.587 * (rgb >> 8 & 0xFF) + 0.114 * (rgb & 0xFF);
+    }
+
+    /**
+     * 汉明距离：两个哈希不同的位数
+     * @param hash1 哈希 1
+     * @param hash2 哈希 2
+     * @return 0 ~ 64，越小越相似
+     */
+    public static int hammingDistance(long hash1, long hash2) {
+        return Long.bitCount(hash1 ^ hash2);
+    }
+}
@@ -0,0 +1,90 @@
+package com.fetters.picture.utils;
+
+import cn.hutool.core.codec.Base64;
+import cn.hutool.core.util.StrUtil;
+import com.fetters.picture.exception.BusinessException;
+import com.fetters.picture.exception.ErrorCode;
+import com.fetters.picture.model.entity.Picture;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 工具类：图片游标分页的游标编解码
+ * <p>
+ * 游标内容为 排序字段,排序顺序,排序值,id，整体 Base64 URL 编码，对前端不透明。
+ * 时间类型的排序值保存为毫秒时间戳。
+ */
+public class PictureCursorUtils {
+
+    private PictureCursorUtils() {
+        // 工具类不需要实例化
+    }
+
+    /**
+     * 默认排序字段
+     */
+    public static final String DEFAULT_SORT_FIELD = "createTime";
+
+    /**
+     * 支持游标分页的排序字段（均为非空列，才能用 排序字段 + id 唯一定位）
+     */
+    public static final List<String> SORT_FIELD_LIST = Arrays.asList("id", "createTime", "editTime", "updateTime");
+
+    private static final String SEPARATOR = ",";
+
+    /**
+     * 根据本页最后一条记录生成下一页游标
+     * @param sortField 排序字段
+     * @param sortOrder 排序顺序
+     * @param picture   本页最后一条记录
+     * @return 游标
+     */
+    public static String encode(String sortField, String sortOrder, Picture picture) {
+        Object sortValue = getSortValue(sortField, picture);
+        String value = sortValue instanceof Date ? String.valueOf(((Date) sortValue).getTime()) : String.valueOf(sortValue);
+        String cursor = String.join(SEPARATOR, sortField, sortOrder, value, String.valueOf(picture.getId()));
+        return Base64.encodeUrlSafe(cursor);
+    }
+
+    /**
+     * 解析游标
+     * @param cursor    游标
+     * @param sortField 本次请求的排序字段
+     * @param sortOrder 本次请求的排序顺序
+     * @return [排序值, id]
+     */
+    public static Object[] decode(String cursor, String sortField, String sortOrder) {
+        String[] parts;
+        try {
+            parts = StrUtil.splitToArray(Base64.decodeStr(cursor), SEPARATOR);
+        } catch (Exception e) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "游标无效");
+        }
+        // 排序方式变化后旧游标不再有效
+        if (parts.length != 4 || !sortField.equals(parts[0]) || !sortOrder.equals(parts[1])) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "游标无效");
+        }
+        try {
+            long value = Long.parseLong(parts[2]);
+            Object sortValue = "id".equals(sortField) ? (Object) value : new Date(value);
+            return new Object[]{sortValue, Long.parseLong(parts[3])};
+        } catch (NumberFormatException e) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "游标无效");
+        }
+    }
+
+    private static Object getSortValue(String sortField, Picture picture) {
+        switch (sortField) {
+            case "id":
+                return picture.getId();
+            case "editTime":
+                return picture.getEditTime();
+            case "updateTime":
+                return picture.getUpdateTime();
+            default:
+                return picture.getCreateTime();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.fetters.picture.manager.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapPictureLocalCacheTest {
+
+    private static final int BLOCK_SIZE = OffHeapPictureLocalCache.BLOCK_SIZE;
+
+    @Test
+    void readsBackDataSpanningBlocks() {
+        OffHeapPictureLocalCache cache = new OffHeapPictureLocalCache(64L * BLOCK_SIZE);
+        byte[] data = newData(BLOCK_SIZE * 3 + 17, 1);
+        cache.put("key", new PictureCacheEntry(data));
+        PictureCacheEntry entry = cache.getIfPresent("key");
+        assertNotNull(entry);
+        assertArrayEquals(data, entry.getData());
+        // 命中次数在多次读取之间共享
+        entry.hit();
+        assertEquals(2, cache.getIfPresent("key").hit());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        OffHeapPictureLocalCache cache = new OffHeapPictureLocalCache(8L * BLOCK_SIZE);
+        cache.put("a", new PictureCacheEntry(newData(BLOCK_SIZE * 2, 1)));
+        cache.put("b", new PictureCacheEntry(newData(BLOCK_SIZE * 2, 2)));
+        cache.put("c", new PictureCacheEntry(newData(BLOCK_SIZE * 2, 3)));
+        assertNotNull(cache.getIfPresent("a"));
+        cache.put("d", new PictureCacheEntry(newData(BLOCK_SIZE * 2, 4)));
+        cache.put("e", new PictureCacheEntry(newData(BLOCK_SIZE * 2, 5)));
+        assertNull(cache.getIfPresent("b"));
+        assertArrayEquals(newData(BLOCK_SIZE * 2, 1), cache.getIfPresent("a").getData());
+        assertArrayEquals(newData(BLOCK_SIZE * 2, 5), cache.getIfPresent("e").getData());
+        assertEquals(1, cache.getStats("test").getEvictionCount());
+    }
+
+    @Test
+    void invalidatesByPrefixAndExpireTime() {
+        OffHeapPictureLocalCache cache = new OffHeapPictureLocalCache(64L * BLOCK_SIZE);
+        cache.put("space:1:a", new PictureCacheEntry(newData(10, 1)));
+        cache.put("space:2:a", new PictureCacheEntry(newData(10, 2)));
+        cache.put("expired", new PictureCacheEntry(newData(10, 3), System.currentTimeMillis() - 1));
+        cache.invalidateByPrefix("space:1:");
+        assertNull(cache.getIfPresent("space:1:a"));
+        assertNotNull(cache.getIfPresent("space:2:a"));
+        assertNull(cache.getIfPresent("expired"));
+        assertEquals(1, cache.getStats("test").getEstimatedSize());
+    }
+
+    private static byte[] newData(int length, int seed) {
+        byte[] data = new byte[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = (byte) (i * 31 + seed);
+        }
+        return data;
+    }
+}
@@ -0,0 +1,32 @@
+package com.fetters.picture.manager.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PictureCacheCompressorTest {
+
+    @Test
+    void compressedAndRawValuesCoexist() {
+        StringBuilder builder = new StringBuilder("{\"code\":0,\"data\":{\"records\":[");
+        for (int i = 0; i < 100; i++) {
+            builder.append("{\"id\":").append(i).append(",\"name\":\"picture\"},");
+        }
+        byte[] data = builder.append("]}}").toString().getBytes(StandardCharsets.UTF_8);
+        byte[] compressed = PictureCacheCompressor.compress(data);
+        assertNotNull(compressed);
+        assertTrue(compressed.length < data.length);
+        assertTrue(PictureCacheCompressor.isCompressed(compressed));
+        assertArrayEquals(data, PictureCacheCompressor.decompress(compressed));
+        // 未压缩的值原样读取
+        assertFalse(PictureCacheCompressor.isCompressed(data));
+        assertArrayEquals(data, PictureCacheCompressor.decompress(data));
+    }
+
+    @Test
+    void smallValuesAreNotCompressed() {
+        assertNull(PictureCacheCompressor.compress(new byte[]{1, 2, 3}));
+    }
+}
@@ -0,0 +1,63 @@
+package com.fetters.picture.manager.cache;
+
+import com.fetters.picture.model.dto.picture.PictureQueryRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PictureCacheKeyBuilderTest {
+
+    @Test
+    void equivalentQueriesShareKey() {
+        PictureQueryRequest request1 = new PictureQueryRequest();
+        request1.setTags(Arrays.asList("风景", "壁纸"));
+        request1.setSearchText(" 山 ");
+        request1.setName("");
+        PictureQueryRequest request2 = new PictureQueryRequest();
+        request2.setTags(Arrays.asList("壁纸", " 风景", "壁纸"));
+        request2.setSearchText("山");
+        request2.setSortOrder("ascend");
+        assertEquals(buildKey(request1), buildKey(request2));
+    }
+
+    @Test
+    void differentQueriesHaveDifferentKeys() {
+        PictureQueryRequest request1 = new PictureQueryRequest();
+        request1.setCategory("壁纸");
+        PictureQueryRequest request2 = new PictureQueryRequest();
+        request2.setCategory("壁纸");
+        request2.setCurrent(2);
+        PictureQueryRequest request3 = new PictureQueryRequest();
+        request3.setName("壁纸");
+        assertNotEquals(buildKey(request1), buildKey(request2));
+        assertNotEquals(buildKey(request1), buildKey(request3));
+    }
+
+    @Test
+    void sortOrderMattersWithSortField() {
+        PictureQueryRequest request1 = new PictureQueryRequest();
+        request1.setSortField("createTime");
+        PictureQueryRequest request2 = new PictureQueryRequest();
+        request2.setSortField("createTime");
+        request2.setSortOrder("ascend");
+        assertNotEquals(buildKey(request1), buildKey(request2));
+    }
+
+    @Test
+    void fieldsArePartOfKey() {
+        PictureQueryRequest request1 = new PictureQueryRequest();
+        request1.setFields(Arrays.asList("name", "id", "thumbnailUrl"));
+        PictureQueryRequest request2 = new PictureQueryRequest();
+        request2.setFields(Arrays.asList(" thumbnailUrl", "name", "id", "name"));
+        PictureQueryRequest request3 = new PictureQueryRequest();
+        assertEquals(buildKey(request1), buildKey(request2));
+        assertNotEquals(buildKey(request1), buildKey(request3));
+    }
+
+    private String buildKey(PictureQueryRequest pictureQueryRequest) {
+        PictureCacheKeyBuilder.normalize(pictureQueryRequest);
+        return PictureCacheKeyBuilder.build(pictureQueryRequest);
+    }
+}
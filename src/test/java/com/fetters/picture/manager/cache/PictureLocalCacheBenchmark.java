@@ -0,0 +1,109 @@
+package com.fetters.picture.manager.cache;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 堆内 / 堆外本地缓存 GC 对比（不随单元测试执行）
+ * <p>
+ * 回放按 Zipf 分布访问的分页读请求，未命中时写入 8 - 128 KB 的页面，统计各 GC 的次数和累计耗时。
+ * 两种实现分别在独立 JVM 中运行，例如：
+ * <pre>
+ * java -Xmx512m -XX:MaxDirectMemorySize=256m -cp target/classes:target/test-classes:... \
+ *     com.fetters.picture.manager.cache.PictureLocalCacheBenchmark heap|offheap
+ * </pre>
+ */
+public class PictureLocalCacheBenchmark {
+
+    private static final long MAX_BYTES = 192L * 1024 * 1024;
+
+    private static final int KEY_COUNT = 20000;
+
+    private static final int OPERATIONS = 2_000_000;
+
+    public static void main(String[] args) {
+        boolean offHeap = args.length > 0 && "offheap".equals(args[0]);
+        PictureLocalCache cache = offHeap
+                ? new OffHeapPictureLocalCache(MAX_BYTES)
+                : new CaffeinePictureLocalCache(MAX_BYTES);
+        int[] workload = buildWorkload(new Random(42));
+        // 预热
+        replay(cache, workload, OPERATIONS / 4);
+        long gcCountBefore = gcCount();
+        long gcMillisBefore = gcMillis();
+        long startTime = System.nanoTime();
+        long bytesRead = replay(cache, workload, OPERATIONS);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+        CacheRegionStats stats = cache.getStats(offHeap ? "offheap" : "heap");
+        System.out.printf("%s: elapsed=%dms gcCount=%d gcTime=%dms hitRate=%.3f entries=%d read=%dMB%n",
+                stats.getRegion(), elapsedMillis, gcCount() - gcCountBefore, gcMillis() - gcMillisBefore,
+                stats.getHitRate(), stats.getEstimatedSize(), bytesRead >> 20);
+        for (GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            System.out.printf("  %s: count=%d time=%dms%n", gcBean.getName(), gcBean.getCollectionCount(),
+                    gcBean.getCollectionTime());
+        }
+    }
+
+    /**
+     * 按 Zipf(s = 1) 分布生成访问序列
+     */
+    private static int[] buildWorkload(Random random) {
+        double[] cumulative = new double[KEY_COUNT];
+        double sum = 0;
+        for (int i = 0; i < KEY_COUNT; i++) {
+            sum += 1.0 / (i + 1);
+            cumulative[i] = sum;
+        }
+        int[] workload = new int[OPERATIONS];
+        for (int i = 0; i < OPERATIONS; i++) {
+            double value = random.nextDouble() * sum;
+            int low = 0;
+            int high = KEY_COUNT - 1;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (cumulative[mid] < value) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            workload[i] = low;
+        }
+        return workload;
+    }
+
+    private static long replay(PictureLocalCache cache, int[] workload, int operations) {
+        long bytesRead = 0;
+        for (int i = 0; i < operations; i++) {
+            int keyIndex = workload[i];
+            String cacheKey = "picture:listPictureVOByPage:public:0.0:resp:" + keyIndex;
+            PictureCacheEntry cacheEntry = cache.getIfPresent(cacheKey);
+            if (cacheEntry == null) {
+                // 页面大小由 key 决定，模拟不同分页参数
+                int length = 8192 + (keyIndex * 7919) % (120 * 1024);
+                cacheEntry = new PictureCacheEntry(new byte[length]);
+                cache.put(cacheKey, cacheEntry);
+            }
+            bytesRead += cacheEntry.getData().length;
+        }
+        return bytesRead;
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gcBean.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long gcMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += Math.max(0, gcBean.getCollectionTime());
+        }
+        return millis;
+    }
+}
@@ -0,0 +1,84 @@
+package com.fetters.picture.manager.cache.codec;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.fetters.picture.model.vo.PictureVO;
+import com.fetters.picture.model.vo.UserVO;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryPictureCacheCodecTest {
+
+    private final BinaryPictureCacheCodec binaryCodec = new BinaryPictureCacheCodec();
+
+    private final JsonPictureCacheCodec jsonCodec = new JsonPictureCacheCodec();
+
+    @Test
+    void roundTrip() {
+        Page<PictureVO> picturePage = buildPage(20);
+        Page<PictureVO> decodedPage = binaryCodec.decode(binaryCodec.encode(picturePage));
+        assertEquals(picturePage.getCurrent(), decodedPage.getCurrent());
+        assertEquals(picturePage.getSize(), decodedPage.getSize());
+        assertEquals(picturePage.getTotal(), decodedPage.getTotal());
+        assertEquals(picturePage.getRecords(), decodedPage.getRecords());
+    }
+
+    @Test
+    void roundTripWithNullFields() {
+        Page<PictureVO> picturePage = new Page<>(1, 10, 1);
+        PictureVO pictureVO = new PictureVO();
+        pictureVO.setId(1L);
+        picturePage.setRecords(new ArrayList<>(Arrays.asList(pictureVO)));
+        Page<PictureVO> decodedPage = binaryCodec.decode(binaryCodec.encode(picturePage));
+        assertEquals(picturePage.getRecords(), decodedPage.getRecords());
+    }
+
+    @Test
+    void smallerThanJson() {
+        Page<PictureVO> picturePage = buildPage(50);
+        int binarySize = binaryCodec.encode(picturePage).length;
+        int jsonSize = jsonCodec.encode(picturePage).length;
+        assertTrue(binarySize < jsonSize, "binary = " + binarySize + ", json = " + jsonSize);
+    }
+
+    private Page<PictureVO> buildPage(int recordCount) {
+        List<PictureVO> records = new ArrayList<>();
+        for (int i = 0; i < recordCount; i++) {
+            PictureVO pictureVO = new PictureVO();
+            pictureVO.setId(1800000000000000000L + i);
+            pictureVO.setUrl("https://example.com/public/1/2025-06-01_abcdefgh" + i + ".webp");
+            pictureVO.setThumbnailUrl("https://example.com/public/1/2025-06-01_abcdefgh" + i + "_thumbnail.png");
+            pictureVO.setDownloadUrl("https://example.com/public/1/2025-06-01_abcdefgh" + i + ".png");
+            pictureVO.setName("风景图片" + i);
+            pictureVO.setIntroduction("一张用于测试的图片");
+            pictureVO.setTags(Arrays.asList("自然", "城市"));
+            pictureVO.setCategory("壁纸");
+            pictureVO.setPicSize(123456L);
+            pictureVO.setPicWidth(1920);
+            pictureVO.setPicHeight(1080);
+            pictureVO.setPicScale(1.78);
+            pictureVO.setPicFormat("webp");
+            pictureVO.setPicColor("0x3a5f7d");
+            pictureVO.setUserId(1L);
+            pictureVO.setCreateTime(new Date(1717200000000L));
+            pictureVO.setEditTime(new Date(1717200000000L));
+            pictureVO.setUpdateTime(new Date(1717200000000L));
+            UserVO userVO = new UserVO();
+            userVO.setId(1L);
+            userVO.setUserAccount("fetters");
+            userVO.setUserName("默认用户");
+            userVO.setUserRole("user");
+            userVO.setCreateTime(new Date(1717200000000L));
+            pictureVO.setUser(userVO);
+            records.add(pictureVO);
+        }
+        Page<PictureVO> picturePage = new Page<>(1, recordCount, 1000);
+        picturePage.setRecords(records);
+        return picturePage;
+    }
+}
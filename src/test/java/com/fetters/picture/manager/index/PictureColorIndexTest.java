@@ -0,0 +1,113 @@
+package com.fetters.picture.manager.index;
+
+import com.fetters.picture.model.entity.Picture;
+import com.fetters.picture.model.enums.PictureReviewStatusEnum;
+import com.fetters.picture.utils.ColorSimilarUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PictureColorIndexTest {
+
+    @Test
+    void deltaE2000MatchesReferenceData() {
+        // Sharma, Wu, Dalal (2005) 测试数据
+        assertEquals(2.0425, ColorSimilarUtils.deltaE2000(50, 2.6772, -79.7751, 50, 0, -82.7485), 1e-4);
+        assertEquals(4.3065, ColorSimilarUtils.deltaE2000(50, 2.5, 0, 50, 0, -2.5), 1e-4);
+        assertEquals(27.1492, ColorSimilarUtils.deltaE2000(50, 2.5, 0, 73, 25, -18), 1e-4);
+        assertEquals(1.4441, ColorSimilarUtils.deltaE2000(90.8027, -2.0831, 1.441, 91.1528, -1.6435, 0.0447), 1e-4);
+    }
+
+    @Test
+    void lowerBoundNeverExceedsDeltaE() {
+        Random random = new Random(7);
+        for (int i = 0; i < 20000; i++) {
+            ColorTarget target = new ColorTarget(random.nextInt(0x1000000));
+            double[] lab = ColorSimilarUtils.rgbToLab(random.nextInt(0x1000000));
+            double lMin = Math.floor(lab[0] / LabGrid.CELL_SIZE) * LabGrid.CELL_SIZE;
+            double aMin = Math.floor(lab[1] / LabGrid.CELL_SIZE) * LabGrid.CELL_SIZE;
+            double bMin = Math.floor(lab[2] / LabGrid.CELL_SIZE) * LabGrid.CELL_SIZE;
+            double deltaE = target.deltaE(lab[0], lab[1], lab[2]);
+            double size = LabGrid.CELL_SIZE;
+            assertTrue(target.lowerBound(lMin, lMin + size, aMin, aMin + size, bMin, bMin + size) <= deltaE + 1e-9);
+            assertTrue(target.lowerBound(lab[0], lab[1], lab[2]) <= deltaE + 1e-9);
+        }
+    }
+
+    @Test
+    void searchesNearestColorsWithinSpace() {
+        PictureColorIndex colorIndex = new PictureColorIndex();
+        colorIndex.add(0, newPicture(10L, null, "0xFF0000"));
+        colorIndex.add(1, newPicture(11L, null, "0xFE0101"));
+        colorIndex.add(2, newPicture(12L, null, "0x0000FF"));
+        colorIndex.add(3, newPicture(13L, 100L, "0xFF0000"));
+        colorIndex.add(4, newPicture(14L, null, null));
+        // 公共图库中未审核通过的图片
+        Picture pendingPicture = newPicture(15L, null, "0xFF0000");
+        pendingPicture.setReviewStatus(PictureReviewStatusEnum.REVIEW_PENDING.getValue());
+        colorIndex.add(5, pendingPicture);
+        // 不指定空间时只搜索公共图库
+        assertArrayEquals(new long[]{10L, 11L, 12L}, colorIndex.search(null, 0xFF0000, 3, Double.POSITIVE_INFINITY));
+        assertArrayEquals(new long[]{12L}, colorIndex.search(null, 0x0000FE, 1, Double.POSITIVE_INFINITY));
+        assertArrayEquals(new long[]{13L}, colorIndex.search(100L, 0x0000FF, 5, Double.POSITIVE_INFINITY));
+        assertArrayEquals(new long[0], colorIndex.search(200L, 0x0000FF, 5, Double.POSITIVE_INFINITY));
+        // 色差阈值
+        assertArrayEquals(new long[]{10L, 11L}, colorIndex.search(null, 0xFF0000, 5, 5));
+        colorIndex.remove(0);
+        colorIndex.remove(3);
+        assertArrayEquals(new long[]{11L, 12L}, colorIndex.search(null, 0xFF0000, 5, Double.POSITIVE_INFINITY));
+        assertArrayEquals(new long[0], colorIndex.search(100L, 0xFF0000, 5, Double.POSITIVE_INFINITY));
+    }
+
+    @Test
+    void gridSearchMatchesBruteForce() {
+        PictureColorIndex colorIndex = new PictureColorIndex();
+        Random random = new Random(42);
+        int count = 50_000;
+        double[][] labs = new double[count][];
+        for (int i = 0; i < count; i++) {
+            int rgb = random.nextInt(0x1000000);
+            labs[i] = ColorSimilarUtils.rgbToLab(rgb);
+            colorIndex.add(i, newPicture((long) i, i % 2 == 0 ? null : 1L, String.format("#%06x", rgb)));
+        }
+        for (int target : new int[]{0x336699, 0xFFFFFF, 0x000000, 0x2200FF, 0xFFCC00}) {
+            ColorTarget colorTarget = new ColorTarget(target);
+            TopK nearest = new TopK(12);
+            TopK withinSpace = new TopK(12);
+            TopK withinRange = new TopK(count);
+            for (int i = 0; i < count; i++) {
+                double deltaE = colorTarget.deltaE((float) labs[i][0], (float) labs[i][1], (float) labs[i][2]);
+                if (i % 2 == 1) {
+                    withinSpace.offer(i, deltaE);
+                    continue;
+                }
+                nearest.offer(i, deltaE);
+                if (deltaE <= 3) {
+                    withinRange.offer(i, deltaE);
+                }
+            }
+            assertArrayEquals(nearest.toSortedIds(), colorIndex.search(null, target, 12, Double.POSITIVE_INFINITY));
+            assertArrayEquals(withinSpace.toSortedIds(), colorIndex.search(1L, target, 12, Double.POSITIVE_INFINITY));
+            assertArrayEquals(withinRange.toSortedIds(), colorIndex.search(null, target, count, 3));
+        }
+    }
+
+    @Test
+    void parsesShortAndInvalidColors() {
+        assertEquals(0x008060, PictureColorIndex.parseColor("0x8060"));
+        assertEquals(0xABCDEF, PictureColorIndex.parseColor("#abcdef"));
+        assertEquals(-1, PictureColorIndex.parseColor("red"));
+        assertEquals(-1, PictureColorIndex.parseColor("0x1000000"));
+    }
+
+    private static Picture newPicture(Long id, Long spaceId, String picColor) {
+        Picture picture = new Picture();
+        picture.setId(id);
+        picture.setSpaceId(spaceId);
+        picture.setPicColor(picColor);
+        picture.setReviewStatus(PictureReviewStatusEnum.REVIEW_PASS.getValue());
+        return picture;
+    }
+}
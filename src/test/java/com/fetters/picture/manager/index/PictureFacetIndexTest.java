@@ -0,0 +1,49 @@
+package com.fetters.picture.manager.index;
+
+import com.fetters.picture.model.dto.picture.PictureQueryRequest;
+import com.fetters.picture.model.entity.Picture;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PictureFacetIndexTest {
+
+    @Test
+    void combinesFiltersAndCountsFacets() {
+        PictureFacetIndex facetIndex = new PictureFacetIndex();
+        facetIndex.add(0, newPicture("壁纸", "jpg", 1, null, 1L));
+        facetIndex.add(1, newPicture("壁纸", "PNG", 1, null, 2L));
+        facetIndex.add(2, newPicture("插画", "png", 0, null, 1L));
+        facetIndex.add(3, newPicture("壁纸", "png", 1, 100L, 1L));
+
+        PictureQueryRequest request = new PictureQueryRequest();
+        request.setNullSpaceId(true);
+        request.setReviewStatus(1);
+        BitSet publicBits = facetIndex.filter(request);
+        assertEquals(BitSet.valueOf(new long[]{0b11}), publicBits);
+        Map<String, Long> formatCounts = facetIndex.countFormats(publicBits);
+        assertEquals(1L, formatCounts.get("jpg"));
+        assertEquals(1L, formatCounts.get("png"));
+        assertEquals(2L, facetIndex.countCategories(publicBits).get("壁纸"));
+
+        request.setUserId(1L);
+        assertEquals(BitSet.valueOf(new long[]{0b1}), facetIndex.filter(request));
+
+        facetIndex.remove(1);
+        request.setUserId(null);
+        assertEquals(BitSet.valueOf(new long[]{0b1}), facetIndex.filter(request));
+    }
+
+    private static Picture newPicture(String category, String picFormat, int reviewStatus, Long spaceId, Long userId) {
+        Picture picture = new Picture();
+        picture.setCategory(category);
+        picture.setPicFormat(picFormat);
+        picture.setReviewStatus(reviewStatus);
+        picture.setSpaceId(spaceId);
+        picture.setUserId(userId);
+        return picture;
+    }
+}
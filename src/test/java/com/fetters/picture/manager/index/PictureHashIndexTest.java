@@ -0,0 +1,73 @@
+package com.fetters.picture.manager.index;
+
+import com.fetters.picture.model.entity.Picture;
+import com.fetters.picture.model.enums.PictureReviewStatusEnum;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PictureHashIndexTest {
+
+    @Test
+    void searchesWithinSpaceAndSkipsUnreviewedPublicPictures() {
+        PictureHashIndex hashIndex = new PictureHashIndex();
+        hashIndex.add(0, newPicture(10L, null, 0xF0F0L, PictureReviewStatusEnum.REVIEW_PASS));
+        hashIndex.add(1, newPicture(11L, null, 0xF0F1L, PictureReviewStatusEnum.REVIEW_PASS));
+        hashIndex.add(2, newPicture(12L, null, 0xF0F0L, PictureReviewStatusEnum.REVIEW_PENDING));
+        hashIndex.add(3, newPicture(13L, 100L, 0xF0F0L, PictureReviewStatusEnum.REVIEW_PENDING));
+        hashIndex.add(4, newPicture(14L, null, null, PictureReviewStatusEnum.REVIEW_PASS));
+        assertArrayEquals(new long[]{10L, 11L}, hashIndex.search(null, 0xF0F0L, 10, 5));
+        assertArrayEquals(new long[]{10L}, hashIndex.search(null, 0xF0F0L, 0, 5));
+        assertArrayEquals(new long[]{13L}, hashIndex.search(100L, 0xF0F1L, 10, 5));
+        assertArrayEquals(new long[0], hashIndex.search(200L, 0xF0F0L, 10, 5));
+        hashIndex.remove(0);
+        hashIndex.remove(3);
+        assertArrayEquals(new long[]{11L}, hashIndex.search(null, 0xF0F0L, 10, 5));
+        assertArrayEquals(new long[0], hashIndex.search(100L, 0xF0F0L, 10, 5));
+    }
+
+    @Test
+    void multiIndexSearchMatchesBruteForce() {
+        PictureHashIndex hashIndex = new PictureHashIndex();
+        Random random = new Random(42);
+        int count = 50_000;
+        long[] hashes = new long[count];
+        for (int i = 0; i < count; i++) {
+            // 一部分哈希由少量基准哈希翻转若干位得到，模拟近似重复
+            hashes[i] = i % 5 == 0 ? random.nextLong() : hashes[i - i % 5] ^ randomBits(random, random.nextInt(20));
+            hashIndex.add(i, newPicture((long) i, 1L, hashes[i], PictureReviewStatusEnum.REVIEW_PENDING));
+        }
+        for (int i = 0; i < count; i += 2500) {
+            long target = hashes[i] ^ randomBits(random, 3);
+            for (int maxDistance : new int[]{0, 3, 10, 16, 20}) {
+                TopK expected = new TopK(12);
+                for (int j = 0; j < count; j++) {
+                    int distance = Long.bitCount(hashes[j] ^ target);
+                    if (distance <= maxDistance) {
+                        expected.offer(j, distance);
+                    }
+                }
+                assertArrayEquals(expected.toSortedIds(), hashIndex.search(1L, target, maxDistance, 12));
+            }
+        }
+    }
+
+    private static long randomBits(Random random, int bitCount) {
+        long bits = 0L;
+        while (Long.bitCount(bits) < bitCount) {
+            bits |= 1L << random.nextInt(64);
+        }
+        return bits;
+    }
+
+    private static Picture newPicture(Long id, Long spaceId, Long picHash, PictureReviewStatusEnum reviewStatus) {
+        Picture picture = new Picture();
+        picture.setId(id);
+        picture.setSpaceId(spaceId);
+        picture.setPicHash(picHash);
+        picture.setReviewStatus(reviewStatus.getValue());
+        return picture;
+    }
+}
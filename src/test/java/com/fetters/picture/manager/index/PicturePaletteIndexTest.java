@@ -0,0 +1,55 @@
+package com.fetters.picture.manager.index;
+
+import com.fetters.picture.model.entity.Picture;
+import com.fetters.picture.model.enums.PictureReviewStatusEnum;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PicturePaletteIndexTest {
+
+    private static final int BLUE = 0x1E90FF;
+
+    private static final int WHITE = 0xFFFFFF;
+
+    @Test
+    void requiresEveryColorAndRanksByCoverage() {
+        PicturePaletteIndex paletteIndex = new PicturePaletteIndex();
+        // 蓝白各半
+        paletteIndex.add(0, newPicture(10L, null, "1E90FF32FFFFFF32", null));
+        // 大面积蓝色 + 少量白色
+        paletteIndex.add(1, newPicture(11L, null, "1E90FF50FFFFFF0A0000000A", null));
+        // 只有蓝色
+        paletteIndex.add(2, newPicture(12L, null, "1E90FF64", null));
+        // 没有调色板的历史图片以主色调代替
+        paletteIndex.add(3, newPicture(13L, null, null, "0xFFFFFF"));
+        // 其他空间
+        paletteIndex.add(4, newPicture(14L, 1L, "1E90FF32FFFFFF32", null));
+        // 公共图库中未审核通过的图片
+        Picture pendingPicture = newPicture(15L, null, "1E90FF32FFFFFF32", null);
+        pendingPicture.setReviewStatus(PictureReviewStatusEnum.REVIEW_PENDING.getValue());
+        paletteIndex.add(5, pendingPicture);
+
+        // 不指定空间时只搜索公共图库
+        assertArrayEquals(new long[]{10L, 11L}, paletteIndex.search(null, new int[]{BLUE, WHITE}, 12, 12));
+        assertArrayEquals(new long[]{10L}, paletteIndex.search(null, new int[]{BLUE, WHITE}, 12, 1));
+        assertArrayEquals(new long[]{14L}, paletteIndex.search(1L, new int[]{BLUE, WHITE}, 12, 12));
+        assertArrayEquals(new long[]{13L, 10L, 11L}, paletteIndex.search(null, new int[]{WHITE}, 12, 12));
+        assertArrayEquals(new long[0], paletteIndex.search(null, new int[]{0xFF0000}, 12, 12));
+
+        paletteIndex.remove(0);
+        paletteIndex.remove(4);
+        assertArrayEquals(new long[]{11L}, paletteIndex.search(null, new int[]{BLUE, WHITE}, 12, 12));
+        assertArrayEquals(new long[0], paletteIndex.search(1L, new int[]{BLUE}, 12, 12));
+    }
+
+    private static Picture newPicture(Long id, Long spaceId, String picPalette, String picColor) {
+        Picture picture = new Picture();
+        picture.setId(id);
+        picture.setSpaceId(spaceId);
+        picture.setPicPalette(picPalette);
+        picture.setPicColor(picColor);
+        picture.setReviewStatus(PictureReviewStatusEnum.REVIEW_PASS.getValue());
+        return picture;
+    }
+}
@@ -0,0 +1,36 @@
+package com.fetters.picture.manager.index;
+
+import com.fetters.picture.model.entity.Picture;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PictureTagIndexTest {
+
+    @Test
+    void matchesAllOrAnyTags() {
+        PictureTagIndex tagIndex = new PictureTagIndex();
+        tagIndex.add(0, newPicture("[\"风景\",\"自然\"]"));
+        tagIndex.add(1, newPicture("[\"风景\",\"城市\"]"));
+        tagIndex.add(2, newPicture("[\"Anime\"]"));
+        tagIndex.add(3, newPicture(null));
+        PostingList all = tagIndex.search(Arrays.asList("风景", "自然"), false);
+        assertEquals(1, all.size());
+        assertTrue(all.contains(0));
+        PostingList any = tagIndex.search(Arrays.asList("自然", "城市", "不存在"), true);
+        assertEquals(2, any.size());
+        assertTrue(tagIndex.search(Arrays.asList("风景", "不存在"), false).isEmpty());
+        // 忽略大小写
+        assertTrue(tagIndex.search(Arrays.asList("anime"), false).contains(2));
+        tagIndex.remove(1);
+        assertEquals(1, tagIndex.search(Arrays.asList("风景"), false).size());
+    }
+
+    private static Picture newPicture(String tags) {
+        Picture picture = new Picture();
+        picture.setTags(tags);
+        return picture;
+    }
+}
@@ -0,0 +1,68 @@
+package com.fetters.picture.manager.index;
+
+import com.fetters.picture.model.entity.Picture;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PictureTextIndexTest {
+
+    @Test
+    void searchesChineseSubstringsInNameOrIntroduction() {
+        PictureTextIndex textIndex = new PictureTextIndex();
+        textIndex.add(0, newPicture("雪山日出", "清晨的雪山"));
+        textIndex.add(1, newPicture("城市夜景", "高楼与雪"));
+        textIndex.add(2, newPicture("Café Night", null));
+        assertEquals(List.of(0), toList(textIndex.search("山日")));
+        assertEquals(List.of(0, 1), toList(textIndex.search("雪")));
+        assertEquals(List.of(1), toList(textIndex.search("夜景")));
+        // 与 utf8mb4_unicode_ci 一致，忽略大小写和重音
+        assertEquals(List.of(2), toList(textIndex.search("CAFE")));
+        assertTrue(textIndex.search("海边").isEmpty());
+    }
+
+    @Test
+    void removesDocuments() {
+        PictureTextIndex textIndex = new PictureTextIndex();
+        textIndex.add(0, newPicture("雪山日出", null));
+        textIndex.add(1, newPicture("雪山", null));
+        textIndex.remove(0);
+        assertEquals(List.of(1), toList(textIndex.search("雪山")));
+        assertTrue(textIndex.search("日出").isEmpty());
+    }
+
+    @Test
+    void postingListSetOperations() {
+        PostingList a = new PostingList();
+        PostingList b = new PostingList();
+        for (int docId : new int[]{5, 1, 3, 9, 3}) {
+            a.add(docId);
+        }
+        for (int docId : new int[]{3, 4, 9}) {
+            b.add(docId);
+        }
+        assertEquals(List.of(1, 3, 5, 9), toList(a));
+        assertEquals(List.of(3, 9), toList(PostingList.intersect(a, b)));
+        assertEquals(List.of(1, 3, 4, 5, 9), toList(PostingList.union(a, b)));
+        a.remove(3);
+        assertFalse(a.contains(3));
+    }
+
+    private static Picture newPicture(String name, String introduction) {
+        Picture picture = new Picture();
+        picture.setName(name);
+        picture.setIntroduction(introduction);
+        return picture;
+    }
+
+    private static List<Integer> toList(PostingList postingList) {
+        List<Integer> docIdList = new ArrayList<>();
+        for (int i = 0; i < postingList.size(); i++) {
+            docIdList.add(postingList.get(i));
+        }
+        return docIdList;
+    }
+}
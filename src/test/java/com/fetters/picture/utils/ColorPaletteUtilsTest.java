@@ -0,0 +1,62 @@
+package com.fetters.picture.utils;
+
+import com.fetters.picture.utils.ColorPaletteUtils.PaletteColor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColorPaletteUtilsTest {
+
+    @Test
+    void extractsBothTonesOfTwoToneImage(@TempDir File tempDir) throws Exception {
+        // 左 70% 蓝色、右 30% 白色，平均色与两者都不相近
+        BufferedImage image = new BufferedImage(1000, 600, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(new Color(0x1E90FF));
+        graphics.fillRect(0, 0, 700, 600);
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(700, 0, 300, 600);
+        graphics.dispose();
+        File file = new File(tempDir, "two-tone.png");
+        ImageIO.write(image, "png", file);
+
+        List<PaletteColor> paletteList = ColorPaletteUtils.extract(file);
+        assertEquals(2, paletteList.size());
+        assertTrue(isClose(0x1E90FF, paletteList.get(0).getRgb()));
+        assertEquals(70, paletteList.get(0).getWeight(), 2);
+        assertTrue(isClose(0xFFFFFF, paletteList.get(1).getRgb()));
+        assertEquals(30, paletteList.get(1).getWeight(), 2);
+    }
+
+    @Test
+    void encodesAndDecodes() {
+        List<PaletteColor> paletteList = Arrays.asList(new PaletteColor(0x1E90FF, 70), new PaletteColor(0xFFFFFF, 30));
+        String palette = ColorPaletteUtils.encode(paletteList);
+        assertEquals("1E90FF46FFFFFF1E", palette);
+        assertEquals(paletteList, ColorPaletteUtils.decode(palette));
+        assertTrue(ColorPaletteUtils.decode("1E90FF4").isEmpty());
+        assertTrue(ColorPaletteUtils.decode("XX90FF46").isEmpty());
+    }
+
+    @Test
+    void returnsEmptyPaletteForUnreadableFile(@TempDir File tempDir) throws Exception {
+        File file = new File(tempDir, "broken.jpg");
+        Files.write(file.toPath(), new byte[]{1, 2, 3});
+        assertTrue(ColorPaletteUtils.extract(file).isEmpty());
+    }
+
+    private static boolean isClose(int expected, int actual) {
+        double[] lab1 = ColorSimilarUtils.rgbToLab(expected);
+        double[] lab2 = ColorSimilarUtils.rgbToLab(actual);
+        return ColorSimilarUtils.deltaE2000(lab1[0], lab1[1], lab1[2], lab2[0], lab2[1], lab2[2]) < 2;
+    }
+}
@@ -0,0 +1,58 @@
+package com.fetters.picture.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageHashUtilsTest {
+
+    @Test
+    void resizedAndRecompressedCopyIsNearDuplicate(@TempDir File tempDir) throws Exception {
+        BufferedImage original = drawScene(1200, 800, 0);
+        File file = new File(tempDir, "copy.jpg");
+        ImageIO.write(drawScene(600, 400, 0), "jpg", file);
+        // 缩小解码 + JPEG 压缩后的副本
+        BufferedImage copy = ColorPaletteUtils.readSampled(file);
+
+        long hash = ImageHashUtils.dHash(original);
+        assertTrue(ImageHashUtils.hammingDistance(hash, ImageHashUtils.dHash(copy)) <= 4);
+        assertTrue(ImageHashUtils.hammingDistance(hash, ImageHashUtils.dHash(drawScene(1200, 800, 1))) > 16);
+    }
+
+    @Test
+    void handlesTinyImages() {
+        BufferedImage image = new BufferedImage(3, 2, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(0, 0, 0xFFFFFF);
+        image.setRGB(0, 1, 0xFFFFFF);
+        // 放大到 9 × 8 后每行只有第一列像素与第二列像素之间亮度下降
+        long hash = ImageHashUtils.dHash(image);
+        assertEquals(8, Long.bitCount(hash));
+        for (int y = 0; y < 8; y++) {
+            assertEquals(1L << (y * 8 + 2), hash & (0xFFL << (y * 8)));
+        }
+    }
+
+    /**
+     * 随机矩形组成的场景，seed 不同则内容不同
+     */
+    private static BufferedImage drawScene(int width, int height, long seed) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        Random random = new Random(seed);
+        for (int i = 0; i < 30; i++) {
+            graphics.setColor(new Color(random.nextInt(0x1000000)));
+            graphics.fillRect((int) (random.nextDouble() * width), (int) (random.nextDouble() * height),
+                    (int) (random.nextDouble() * width / 2), (int) (random.nextDouble() * height / 2));
+        }
+        graphics.dispose();
+        return image;
+    }
+}